@@ -0,0 +1,70 @@
+package Benchmarks;
+
+import LexicalAnalyzer.TokenStream;
+import SyntaxAnalyzer.IncrementalParser;
+import SyntaxAnalyzer.Parser;
+import SyntaxAnalyzer.Stmt;
+import Utils.Diagnostics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Latency of one keystroke in the middle of a generated script: typing a
+// character into an IPAKITA string and deleting it again, and pressing
+// Enter and Backspace, against lexing and parsing the whole source.
+// The incremental rows should stay close to flat as the script grows.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IncrementalBenchmark {
+    @Param({"generated:100", "generated:1000", "generated:10000"})
+    public String program;
+
+    private String source;
+    private IncrementalParser document;
+    private int offset;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        source = Programs.source(program);
+        document = new IncrementalParser(source);
+        offset = source.indexOf("\"gamay\"", source.length() / 2) + 1;
+    }
+
+    // Two edits per call.
+    @Benchmark
+    public IncrementalParser typeCharacter() {
+        document.edit(offset, 0, "x");
+        document.edit(offset, 1, "");
+        return document;
+    }
+
+    @Benchmark
+    public IncrementalParser typeNewline() {
+        int lineStart = source.lastIndexOf('\n', offset) + 1;
+        document.edit(lineStart, 0, "\n");
+        document.edit(lineStart, 1, "");
+        return document;
+    }
+
+    @Benchmark
+    public List<Stmt> fullParse() {
+        Diagnostics diagnostics = new Diagnostics();
+        return new Parser(TokenStream.scan(source, diagnostics), diagnostics).parse();
+    }
+}
@@ -0,0 +1,74 @@
+package Benchmarks;
+
+import Engine.BisayaEngine;
+import Engine.Metrics;
+import Engine.Program;
+import Utils.Diagnostics;
+import Utils.Input;
+import Utils.Limits;
+import Utils.Output;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Runs whole programs on each engine; one op is one complete run.
+// Programs are built by BisayaEngine.compile, so each engine runs the same
+// optimized and type-checked tree a script gets from the command line.
+// IPAKITA output is discarded so the numbers measure the interpreter.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InterpreterBenchmark {
+    @Param({"arithmetic", "nestedKung", "concat", "LoopTest.txt", "IFTest.txt", "Logical.txt"})
+    public String workload;
+
+    @Param({"tree", "vm", "nodes"})
+    public String engine;
+
+    @Param({"10000"})
+    public int iterations;
+
+    private BisayaEngine bisaya;
+    private Program program;
+    private Output output;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String source = switch (workload) {
+            case "arithmetic" -> Programs.arithmeticLoop(iterations);
+            case "nestedKung" -> Programs.nestedKung(iterations);
+            case "concat" -> Programs.concatenation(iterations);
+            default -> Programs.load(workload);
+        };
+        BisayaEngine.Backend backend = switch (engine) {
+            case "vm" -> BisayaEngine.Backend.VM;
+            case "nodes" -> BisayaEngine.Backend.NODES;
+            default -> BisayaEngine.Backend.INTERPRETER;
+        };
+        bisaya = new BisayaEngine(backend, Limits.NONE, Metrics.NONE);
+        program = bisaya.compile(source);
+        if (program.hasErrors()) {
+            throw new IllegalStateException(workload + " does not compile: " + program.errors());
+        }
+        output = Programs.nullOutput();
+    }
+
+    @Benchmark
+    public void run() {
+        bisaya.execute(program, output, Input.of(""), new Diagnostics());
+    }
+}
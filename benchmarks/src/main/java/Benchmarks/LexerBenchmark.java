@@ -0,0 +1,71 @@
+package Benchmarks;
+
+import LexicalAnalyzer.Lexer;
+import LexicalAnalyzer.Token;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Lexer.scanTokens throughput, and pulling the same tokens one at a time
+// from a Reader without keeping them. The "tokens" counter in the report is
+// tokens/sec; the primary score is whole sources scanned per second.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LexerBenchmark {
+    @Param({"Variables.txt", "IFTest.txt", "LoopTest.txt", "nestedKung.txt", "generated:1000", "generated:50000"})
+    public String program;
+
+    private String source;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long tokens;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            tokens = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        source = Programs.source(program);
+    }
+
+    @Benchmark
+    public List<Token> scanTokens(Counters counters) {
+        List<Token> tokens = new Lexer(source).scanTokens();
+        counters.tokens += tokens.size();
+        return tokens;
+    }
+
+    @Benchmark
+    public Token stream(Counters counters) {
+        Lexer lexer = new Lexer(new StringReader(source));
+        Token last = null;
+        while (lexer.hasNext()) {
+            last = lexer.next();
+            counters.tokens++;
+        }
+        return last;
+    }
+}
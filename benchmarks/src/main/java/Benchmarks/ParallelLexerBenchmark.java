@@ -0,0 +1,64 @@
+package Benchmarks;
+
+import LexicalAnalyzer.ParallelLexer;
+import LexicalAnalyzer.TokenStream;
+import Utils.Diagnostics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// Time to lex one large generated source (generated:300000 is about 100 MB)
+// on pools of 1 to 16 threads, against the single-threaded TokenStream.scan.
+// Run on a machine with at least as many cores as the largest pool, with a
+// heap of a few GB: -jvmArgs -Xmx8g.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Benchmark)
+public class ParallelLexerBenchmark {
+    @Param({"generated:300000"})
+    public String program;
+
+    @Param({"1", "2", "4", "8", "16"})
+    public int threads;
+
+    private String source;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        source = Programs.source(program);
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public TokenStream parallel() {
+        return new ParallelLexer(pool, ParallelLexer.DEFAULT_CHUNK_SIZE).scan(source, new Diagnostics());
+    }
+
+    // Does not depend on threads; compare it with the threads=1 row.
+    @Benchmark
+    public TokenStream sequential() {
+        return TokenStream.scan(source, new Diagnostics());
+    }
+}
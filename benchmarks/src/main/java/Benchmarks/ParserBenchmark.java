@@ -0,0 +1,74 @@
+package Benchmarks;
+
+import LexicalAnalyzer.Lexer;
+import LexicalAnalyzer.Token;
+import LexicalAnalyzer.TokenStream;
+import SyntaxAnalyzer.Parser;
+import SyntaxAnalyzer.Stmt;
+import Utils.Diagnostics;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Parser.parse throughput over a pre-scanned token list, and over the same
+// tokens as a compact TokenStream. The "statements" counter in the report
+// is statements/sec.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParserBenchmark {
+    @Param({"Variables.txt", "IFTest.txt", "LoopTest.txt", "nestedKung.txt", "generated:1000", "generated:50000"})
+    public String program;
+
+    private List<Token> tokens;
+    private TokenStream stream;
+    private int statementCount;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long statements;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            statements = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tokens = new Lexer(Programs.source(program)).scanTokens();
+        stream = TokenStream.scan(Programs.source(program), new Diagnostics());
+        statementCount = Programs.countStatements(new Parser(tokens).parse());
+    }
+
+    @Benchmark
+    public List<Stmt> parse(Counters counters) {
+        List<Stmt> statements = new Parser(tokens).parse();
+        counters.statements += statementCount;
+        return statements;
+    }
+
+    @Benchmark
+    public List<Stmt> parseTokenStream(Counters counters) {
+        List<Stmt> statements = new Parser(stream, new Diagnostics()).parse();
+        counters.statements += statementCount;
+        return statements;
+    }
+}
@@ -0,0 +1,129 @@
+package Benchmarks;
+
+import SyntaxAnalyzer.Stmt;
+import Utils.Output;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+// Benchmark inputs: the programs from src/Test/NoErrorTests (copied onto the
+// classpath under programs/ by the build) and generated scripts of any size.
+final class Programs {
+    private Programs() {
+    }
+
+    // Discards IPAKITA output while still encoding it like standard out.
+    static Output nullOutput() {
+        return new Output(Channels.newChannel(OutputStream.nullOutputStream()), StandardCharsets.UTF_8, Output.DEFAULT_CAPACITY);
+    }
+
+    static String load(String name) {
+        try (InputStream in = Programs.class.getResourceAsStream("/programs/" + name)) {
+            if (in == null) throw new IllegalArgumentException("No sample program " + name);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // "generated:N" produces a straight-line program of N statement groups;
+    // anything else names a sample program.
+    static String source(String program) {
+        if (program.startsWith("generated:")) {
+            return straightLine(Integer.parseInt(program.substring("generated:".length())));
+        }
+        return load(program);
+    }
+
+    static String straightLine(int groups) {
+        StringBuilder source = new StringBuilder("SUGOD\n");
+        for (int i = 0; i < groups; i++) {
+            source.append("    MUGNA NUMERO a").append(i).append(" = ").append(i).append(", b").append(i).append('\n');
+            source.append("    MUGNA TINUOD t").append(i).append(" = \"OO\"\n");
+            source.append("    b").append(i).append(" = (a").append(i).append(" * 2 + 7) / 3 - 1\n");
+            source.append("    KUNG (a").append(i).append(" < b").append(i).append(" UG t").append(i).append(")\n");
+            source.append("    PUNDOK{\n");
+            source.append("        IPAKITA: \"gamay\" & a").append(i).append(" & $ & [#] -- comment\n");
+            source.append("    }\n");
+            source.append("    KUNG WALA\n");
+            source.append("    PUNDOK{\n");
+            source.append("        IPAKITA: b").append(i).append('\n');
+            source.append("    }\n");
+        }
+        return source.append("KATAPUSAN\n").toString();
+    }
+
+    static String arithmeticLoop(int iterations) {
+        return "SUGOD\n"
+                + "    MUGNA NUMERO i = 0, sum = 0\n"
+                + "    ALANG SA (i = 0, i < " + iterations + ", i++)\n"
+                + "    PUNDOK{\n"
+                + "        sum = sum + i * 2 - (i / 4)\n"
+                + "    }\n"
+                + "    IPAKITA: sum\n"
+                + "KATAPUSAN\n";
+    }
+
+    static String nestedKung(int iterations) {
+        return "SUGOD\n"
+                + "    MUGNA NUMERO i = 0, small = 0, medium = 0, large = 0\n"
+                + "    ALANG SA (i = 0, i < " + iterations + ", i++)\n"
+                + "    PUNDOK{\n"
+                + "        KUNG (i < 100)\n"
+                + "        PUNDOK{\n"
+                + "            KUNG (i < 10)\n"
+                + "            PUNDOK{\n"
+                + "                small = small + 1\n"
+                + "            }\n"
+                + "            KUNG WALA\n"
+                + "            PUNDOK{\n"
+                + "                medium = medium + 1\n"
+                + "            }\n"
+                + "        } KUNG DILI (i < 1000 O i == 5000)\n"
+                + "        PUNDOK{\n"
+                + "            medium = medium + 1\n"
+                + "        }\n"
+                + "        KUNG WALA\n"
+                + "        PUNDOK{\n"
+                + "            large = large + 1\n"
+                + "        }\n"
+                + "    }\n"
+                + "    IPAKITA: small & \" \" & medium & \" \" & large\n"
+                + "KATAPUSAN\n";
+    }
+
+    static String concatenation(int iterations) {
+        return "SUGOD\n"
+                + "    MUGNA NUMERO i = 0\n"
+                + "    MUGNA LETRA c = 'x'\n"
+                + "    MUGNA TINUOD t = \"OO\"\n"
+                + "    ALANG SA (i = 0, i < " + iterations + ", i++)\n"
+                + "    PUNDOK{\n"
+                + "        IPAKITA: \"linya \" & i & [#] & c & t & $ & \"sunod\" & i * 2\n"
+                + "    }\n"
+                + "KATAPUSAN\n";
+    }
+
+    static int countStatements(List<Stmt> statements) {
+        int count = 0;
+        for (Stmt statement : statements) count += countStatements(statement);
+        return count;
+    }
+
+    private static int countStatements(Stmt statement) {
+        if (statement == null) return 0;
+        if (statement instanceof Stmt.Sugod sugod) return 1 + countStatements(sugod.statements);
+        if (statement instanceof Stmt.Block block) return 1 + countStatements(block.statements);
+        if (statement instanceof Stmt.VarDeclaration declaration) return declaration.variables.size();
+        if (statement instanceof Stmt.While loop) return 1 + countStatements(loop.body);
+        if (statement instanceof Stmt.If branch) {
+            return 1 + countStatements(branch.thenBranch) + countStatements(branch.elseBranch);
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,49 @@
+package Engine;
+
+import Utils.Diagnostics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BatchRunnerTest {
+    @TempDir
+    Path directory;
+
+    // A timeout of 0 is no limit, as in Limits, not an instant deadline.
+    @Test
+    void zeroTimeoutRunsProgramsToTheEnd() throws IOException, InterruptedException {
+        Files.writeString(directory.resolve("loop.txt"), """
+                SUGOD
+                    MUGNA NUMERO n = 0, i
+                    ALANG SA (i = 0, i < 100000, i++)
+                    PUNDOK{
+                        n = n + i
+                    }
+                    IPAKITA: n
+                KATAPUSAN
+                """);
+
+        BatchRunner runner = new BatchRunner(new BisayaEngine(), 1, 0, BatchRunner.DEFAULT_MAX_OUTPUT_BYTES,
+                directory.resolve("out"), Diagnostics.UNLIMITED);
+        List<BatchRunner.Result> results = runner.run(BatchRunner.jobs(directory));
+
+        assertEquals(1, results.size());
+        assertEquals(BatchRunner.Status.OK, results.get(0).status());
+        assertNull(results.get(0).firstError());
+        assertEquals("704982704\n", Files.readString(directory.resolve("out/loop.txt.out")));
+    }
+
+    @Test
+    void negativeTimeoutIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new BatchRunner(new BisayaEngine(), 1, -1,
+                BatchRunner.DEFAULT_MAX_OUTPUT_BYTES, null));
+    }
+}
@@ -0,0 +1,82 @@
+package LexicalAnalyzer;
+
+import Utils.Diagnostics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// ParallelLexer must give the same tokens, lines and errors as
+// TokenStream.scan. Chunk sizes of a few chars put a piece boundary after
+// almost every newline, inside strings, escape codes, char literals and
+// the gap after KUNG and ALANG included.
+class ParallelLexerTest {
+    private static final int[] CHUNK_SIZES = {1, 2, 3, 7, 20, 100};
+
+    // Pieces that open and close across lines, or never close.
+    private static final String[] FRAGMENTS = {
+            "SUGOD\n", "KATAPUSAN\n", "MUGNA NUMERO a = 1\n", "MUGNA TIPIK t = 2.5\n",
+            "IPAKITA: a & \"x\" & $\n", "a = a + 1\n", "-- comment \" [ '\n",
+            "\"string\nover lines\"\n", "\"never closed\n", "[\n]\n", "[#]\n", "[\n", "'c'\n", "'\n",
+            "KUNG\n\nWALA\n", "KUNG (a < 1)\n", "KUNG DILI (a)\n", "KUNG\n  DILI\n", "ALANG\n\n SA\n",
+            "ALANG SA (i = 0, i < 3, i++)\n", "PUNDOK{\n", "}\n", "DAWAT: a, b\n", "\n", "\n\n\n",
+            "   ", "a", "1", ".", "&", "@", "#\n", "\"OO\"", "<>", "==", ">=", "++", "--", "12.5.3\n"
+    };
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    @AfterAll
+    static void shutDown() {
+        POOL.shutdown();
+    }
+
+    @Test
+    void randomSourcesLexTheSameAsSequential() {
+        Random random = new Random(18);
+        for (int i = 0; i < 300; i++) {
+            StringBuilder source = new StringBuilder();
+            int fragments = 1 + random.nextInt(40);
+            for (int j = 0; j < fragments; j++) source.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+            assertSameAsSequential(source.toString(), "random source " + i);
+        }
+    }
+
+    @Test
+    void samplePrograms() throws IOException {
+        List<Path> programs;
+        try (Stream<Path> files = Files.walk(Path.of("../src/Test"))) {
+            programs = files.filter(Files::isRegularFile).sorted().toList();
+        }
+        for (Path program : programs) {
+            assertSameAsSequential(Files.readString(program, Charset.defaultCharset()), program.toString());
+        }
+    }
+
+    private static void assertSameAsSequential(String source, String name) {
+        Diagnostics expectedErrors = new Diagnostics();
+        String expected = dump(TokenStream.scan(source, expectedErrors));
+        for (int chunkSize : CHUNK_SIZES) {
+            Diagnostics errors = new Diagnostics();
+            String actual = dump(new ParallelLexer(POOL, chunkSize).scan(source, errors));
+            assertEquals(expected, actual, name + ", chunk size " + chunkSize + ":\n" + source);
+            assertEquals(expectedErrors.messages(), errors.messages(), name + ", chunk size " + chunkSize);
+        }
+    }
+
+    private static String dump(TokenStream tokens) {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < tokens.size(); i++) {
+            out.append(tokens.token(i)).append(" @").append(tokens.line(i)).append('\n');
+        }
+        return out.toString();
+    }
+}
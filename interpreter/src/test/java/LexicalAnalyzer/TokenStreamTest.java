@@ -0,0 +1,65 @@
+package LexicalAnalyzer;
+
+import SyntaxAnalyzer.Expr;
+import SyntaxAnalyzer.Parser;
+import SyntaxAnalyzer.Stmt;
+import Utils.Diagnostics;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class TokenStreamTest {
+    private static final String SOURCE = """
+            SUGOD
+                MUGNA NUMERO count = 1
+                count = count + 1
+                IPAKITA: count
+            KATAPUSAN
+            """;
+
+    @Test
+    void identifiersShareOneString() {
+        TokenStream tokens = TokenStream.scan(SOURCE, new Diagnostics());
+        assertSameNames(tokens);
+    }
+
+    @Test
+    void identifiersShareOneStringAcrossParallelPieces() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            assertSameNames(new ParallelLexer(pool, 1).scan(SOURCE, new Diagnostics()));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void parsedNamesAreShared() {
+        Diagnostics diagnostics = new Diagnostics();
+        List<Stmt> statements = new Parser(TokenStream.scan(SOURCE, diagnostics), diagnostics).parse();
+        List<Stmt> body = ((Stmt.Sugod) statements.get(0)).statements;
+        String declared = ((Stmt.VarDeclaration) body.get(0)).variables.get(0).name.getLexeme();
+        Expr.Assign assign = (Expr.Assign) ((Stmt.Expression) body.get(1)).expression;
+        Expr.Variable printed = (Expr.Variable) ((Stmt.Print) body.get(2)).expression;
+        assertSame(declared, assign.name.getLexeme());
+        assertSame(declared, printed.name.getLexeme());
+    }
+
+    private static void assertSameNames(TokenStream tokens) {
+        String first = null;
+        int found = 0;
+        for (int i = 0; i < tokens.size(); i++) {
+            if (tokens.type(i) != TokenType.IDENTIFIER) continue;
+            assertEquals("count", tokens.lexeme(i));
+            if (first == null) first = tokens.lexeme(i);
+            assertSame(first, tokens.lexeme(i));
+            assertSame(first, tokens.token(i).getLexeme());
+            found++;
+        }
+        assertEquals(4, found);
+    }
+}
@@ -0,0 +1,128 @@
+package SyntaxAnalyzer;
+
+import LexicalAnalyzer.Token;
+import LexicalAnalyzer.TokenStream;
+import Utils.Diagnostics;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// After every edit, IncrementalParser must hold what lexing and parsing the
+// edited source from scratch gives: the same tokens, the same tree (compared
+// through AstCodec) and the same errors.
+class IncrementalParserTest {
+    // Inserted at random offsets: single chars that open or close strings,
+    // escape codes and blocks, keywords, and whole statements and blocks.
+    private static final String[] SNIPPETS = {
+            "x", " ", "\n", "\"", "[", "]", "{", "}", "KUNG ", "WALA", "+", "++", "1", ".", "'", "--",
+            "PUNDOK{\n", "IPAKITA: a\n", "", "\n    ", "MUGNA NUMERO z = 3\n", "(", ")",
+            "KUNG (a < 1)\nPUNDOK{\nIPAKITA: 1\n}\n", "ALANG SA (i=0, i<3, i++)\nPUNDOK{\n",
+            "DILI", "SA", "=", "2.5", "&", "$", ",", "a"
+    };
+
+    private static final String PROGRAM = """
+            SUGOD
+                MUGNA NUMERO a = 1, b = 2
+                MUGNA TIPIK t = 2.5
+                KUNG (a < b)
+                PUNDOK{
+                    IPAKITA: a & "x" & $
+                    ALANG SA (i = 0, i < 3, i++)
+                    PUNDOK{
+                        a = a + i
+                        KUNG (a == 2)
+                        PUNDOK{
+                            IPAKITA: [#] & 'c'
+                        }
+                        KUNG WALA
+                        PUNDOK{
+                            b++
+                        }
+                    }
+                }
+                KUNG DILI (b > 3)
+                PUNDOK{
+                    IPAKITA: "OO"
+                }
+                IPAKITA: a & b & t
+            KATAPUSAN
+            """;
+
+    @Test
+    void randomEditsParseLikeAFreshParse() {
+        editRandomly(PROGRAM, 19, 3000);
+    }
+
+    @Test
+    void randomEditsOfASampleProgram() throws IOException {
+        Path program = Path.of("../src/Test/NoErrorTests/nestedKung.txt");
+        editRandomly(Files.readString(program, Charset.defaultCharset()), 1019, 1000);
+    }
+
+    private static void editRandomly(String original, long seed, int edits) {
+        Random random = new Random(seed);
+        IncrementalParser parser = new IncrementalParser(original);
+        for (int i = 0; i < edits; i++) {
+            String before = parser.source();
+            int offset = random.nextInt(before.length() + 1);
+            int removed = random.nextInt(4) == 0 ? Math.min(random.nextInt(8), before.length() - offset) : 0;
+            String inserted = SNIPPETS[random.nextInt(SNIPPETS.length)];
+            parser.edit(offset, removed, inserted);
+
+            String source = before.substring(0, offset) + inserted + before.substring(offset + removed);
+            String edit = "edit " + i + " (seed " + seed + "): replace " + removed + " chars at " + offset
+                    + " with \"" + inserted + "\" in\n" + before;
+            assertSameAsFreshParse(source, parser, edit);
+            // Keep the source small, so edits land in and around its blocks.
+            if (source.length() > 2000) parser = new IncrementalParser(original);
+        }
+    }
+
+    private static void assertSameAsFreshParse(String source, IncrementalParser parser, String edit) {
+        Diagnostics expectedErrors = new Diagnostics();
+        TokenStream tokens = TokenStream.scan(source, expectedErrors);
+        List<Stmt> expected = new Parser(tokens, expectedErrors).parse();
+        Diagnostics errors = new Diagnostics();
+        parser.report(errors);
+
+        assertEquals(source, parser.source(), edit);
+        assertEquals(dump(tokens), dump(parser.tokens()), edit);
+        assertEquals(encode(expected), encode(parser.statements()), edit);
+        assertEquals(expectedErrors.messages(), errors.messages(), edit);
+    }
+
+    private static String dump(TokenStream tokens) {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < tokens.size(); i++) {
+            out.append(tokens.token(i)).append(" @").append(tokens.line(i)).append('\n');
+        }
+        return out.toString();
+    }
+
+    private static String dump(List<Token> tokens) {
+        StringBuilder out = new StringBuilder();
+        for (Token token : tokens) out.append(token).append(" @").append(token.getLine()).append('\n');
+        return out.toString();
+    }
+
+    private static String encode(List<Stmt> statements) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            AstCodec.write(statements, new DataOutputStream(bytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Base64.getEncoder().encodeToString(bytes.toByteArray());
+    }
+}
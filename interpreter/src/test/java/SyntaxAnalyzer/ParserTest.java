@@ -0,0 +1,55 @@
+package SyntaxAnalyzer;
+
+import LexicalAnalyzer.Lexer;
+import LexicalAnalyzer.TokenStream;
+import Utils.Diagnostics;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Error recovery: every syntax error of a script is reported in one parse,
+// whether the parser reads a TokenStream or pulls tokens from a Lexer.
+class ParserTest {
+    @Test
+    void errorAtTheStartOfTheNextLineKeepsThatLine() {
+        String source = """
+                SUGOD
+                MUGNA NUMERO x =
+                MUGNA NUMERO = 5
+                IPAKITA: x +
+                MUGNA LETRA = 'a'
+                KATAPUSAN
+                """;
+        assertErrors(source, List.of(
+                "[line 3] Error at 'MUGNA': Expect expression.",
+                "[line 3] Error at '=': Expect variable name.",
+                "[line 5] Error at 'MUGNA': Expect expression.",
+                "[line 5] Error at '=': Expect variable name."));
+    }
+
+    @Test
+    void errorInsideALineSkipsTheRestOfIt() {
+        String source = """
+                SUGOD
+                MUGNA NUMERO x = ) 1 2
+                IPAKITA: ( x
+                MUGNA NUMERO y = 2
+                KATAPUSAN
+                """;
+        assertErrors(source, List.of(
+                "[line 2] Error at ')': Expect expression.",
+                "[line 4] Error at 'MUGNA': Expect ')' after expression."));
+    }
+
+    private static void assertErrors(String source, List<String> expected) {
+        Diagnostics streamed = new Diagnostics();
+        new Parser(TokenStream.scan(source, streamed), streamed).parse();
+        assertEquals(expected, streamed.messages(), "TokenStream");
+
+        Diagnostics pulled = new Diagnostics();
+        new Parser(new Lexer(source, pulled), pulled).parse();
+        assertEquals(expected, pulled.messages(), "Lexer");
+    }
+}
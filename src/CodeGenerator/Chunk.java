@@ -0,0 +1,67 @@
+package CodeGenerator;
+
+import LexicalAnalyzer.Token;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// A compiled program: flat code array, constant pool, and the token each
+// instruction reports runtime errors against.
+public class Chunk {
+    int[] code = new int[64];
+    Token[] tokens = new Token[64];
+    int count = 0;
+    int maxStack = 0;
+    private final List<Object> constants = new ArrayList<>();
+    private final Map<Object, Integer> constantIndex = new HashMap<>();
+    Object[] constantPool = new Object[0];
+
+    void write(int value, Token token) {
+        if (count == code.length) {
+            code = Arrays.copyOf(code, count * 2);
+            tokens = Arrays.copyOf(tokens, count * 2);
+        }
+        code[count] = value;
+        tokens[count] = token;
+        count++;
+    }
+
+    int addConstant(Object value) {
+        Integer index = constantIndex.get(value);
+        if (index != null) return index;
+        constants.add(value);
+        constantIndex.put(value, constants.size() - 1);
+        return constants.size() - 1;
+    }
+
+    void seal() {
+        code = Arrays.copyOf(code, count);
+        tokens = Arrays.copyOf(tokens, count);
+        constantPool = constants.toArray();
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public String disassemble() {
+        StringBuilder builder = new StringBuilder();
+        int offset = 0;
+        while (offset < count) {
+            int op = code[offset];
+            builder.append(String.format("%04d ", offset)).append(OpCode.name(op));
+            for (int i = 1; i <= OpCode.operandCount(op); i++) {
+                builder.append(' ').append(code[offset + i]);
+            }
+            if (op == OpCode.CONSTANT) {
+                builder.append(" '").append(constantPool[code[offset + 1]]).append('\'');
+            }
+            builder.append('\n');
+            offset += 1 + OpCode.operandCount(op);
+        }
+        return builder.toString();
+    }
+}
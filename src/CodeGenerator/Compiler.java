@@ -0,0 +1,308 @@
+package CodeGenerator;
+
+import LexicalAnalyzer.Token;
+import SyntaxAnalyzer.Expr;
+import SyntaxAnalyzer.Stmt;
+
+import java.util.List;
+
+// Lowers resolved statements into a Chunk for the VirtualMachine. Expects
+// the Resolver to have run, since variables are addressed by (depth, slot).
+public class Compiler implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
+    private Chunk chunk;
+    private int stackDepth;
+
+    public Chunk compile(List<Stmt> statements) {
+        chunk = new Chunk();
+        stackDepth = 0;
+        for (Stmt statement : statements) compile(statement);
+        emit(OpCode.RETURN, null);
+        chunk.seal();
+        return chunk;
+    }
+
+    private void compile(Stmt stmt) {
+        if (stmt != null) stmt.accept(this);
+    }
+
+    private void compile(Expr expr) {
+        if (expr == null) {
+            emitConstant(null);
+            return;
+        }
+        expr.accept(this);
+    }
+
+    private void emit(int op, Token token, int... operands) {
+        chunk.write(op, token);
+        for (int operand : operands) chunk.write(operand, token);
+        stackDepth += stackEffect(op);
+        chunk.maxStack = Math.max(chunk.maxStack, stackDepth);
+    }
+
+    private void emitConstant(Object value) {
+        emit(OpCode.CONSTANT, null, chunk.addConstant(value));
+    }
+
+    private int emitJump(int op, Token token) {
+        emit(op, token, 0);
+        return chunk.count - 1;
+    }
+
+    private void patchJump(int operand) {
+        chunk.code[operand] = chunk.count - operand - 1;
+    }
+
+    private void emitLoop(int loopStart, Token token, int statements) {
+        emit(OpCode.LOOP, token, 0, statements);
+        chunk.code[chunk.count - 2] = chunk.count - loopStart;
+    }
+
+    // Statements one pass of a loop body runs, counted the way
+    // Interpreter.execute counts them, so a step budget means the same on
+    // both: a block and each statement in it, a KUNG and the longer of its
+    // branches, and a nested loop as one statement, its own passes being
+    // charged by its own LOOP.
+    private static int statementsIn(Stmt stmt) {
+        if (stmt == null) return 0;
+        if (stmt instanceof Stmt.Block block) {
+            int count = 1;
+            for (Stmt statement : block.statements) count += statementsIn(statement);
+            return count;
+        }
+        if (stmt instanceof Stmt.If branch) {
+            return 1 + Math.max(statementsIn(branch.thenBranch), statementsIn(branch.elseBranch));
+        }
+        return 1;
+    }
+
+    private static int stackEffect(int op) {
+        return switch (op) {
+            case OpCode.CONSTANT, OpCode.GET_VAR, OpCode.INCREMENT, OpCode.DECREMENT -> 1;
+            case OpCode.POP, OpCode.DEFINE, OpCode.PRINT, OpCode.JUMP_IF_FALSE, OpCode.STORE_VAR, OpCode.STORE_CHECKED,
+                 OpCode.ADD, OpCode.SUBTRACT, OpCode.MULTIPLY, OpCode.DIVIDE, OpCode.MODULO,
+                 OpCode.GREATER, OpCode.GREATER_EQUAL, OpCode.LESS, OpCode.LESS_EQUAL,
+                 OpCode.EQUAL, OpCode.NOT_EQUAL, OpCode.CONCAT, OpCode.NEXT_LINE -> -1;
+            // JUMP_IF_*_OR_POP keeps the value on one path and pops it on the
+            // other; the compiler counts the popping path and re-adds the
+            // right operand, which nets out the same.
+            case OpCode.JUMP_IF_TRUE_OR_POP, OpCode.JUMP_IF_FALSE_OR_POP -> -1;
+            case OpCode.JUMP_IF_NOT_GREATER, OpCode.JUMP_IF_NOT_GREATER_EQUAL,
+                 OpCode.JUMP_IF_NOT_LESS, OpCode.JUMP_IF_NOT_LESS_EQUAL -> -2;
+            default -> 0;
+        };
+    }
+
+    @Override
+    public Void visitBlockStmt(Stmt.Block stmt) {
+        for (Stmt statement : stmt.statements) compile(statement);
+        return null;
+    }
+
+    @Override
+    public Void visitSugodStmt(Stmt.Sugod stmt) {
+        for (Stmt statement : stmt.statements) compile(statement);
+        return null;
+    }
+
+    @Override
+    public Void visitExpressionStmt(Stmt.Expression stmt) {
+        if (stmt.expression instanceof Expr.Variable varExpr) {
+            emit(OpCode.CHECK_VAR, varExpr.name, varExpr.depth, varExpr.slot);
+        }
+        // Assignments are the common statement, and their value is thrown
+        // away, so store without leaving it on the stack.
+        if (stmt.expression instanceof Expr.Assign assign) {
+            compileStore(assign);
+            return null;
+        }
+        compile(stmt.expression);
+        emit(OpCode.POP, null);
+        return null;
+    }
+
+    private void compileStore(Expr.Assign assign) {
+        if (assign.value instanceof Expr.Increment increment && increment.slot == assign.slot
+                && increment.depth == assign.depth) {
+            emit(OpCode.INCREMENT_VAR, assign.name, assign.depth, assign.slot);
+            return;
+        }
+        if (assign.value instanceof Expr.Decrement decrement && decrement.slot == assign.slot
+                && decrement.depth == assign.depth) {
+            emit(OpCode.DECREMENT_VAR, assign.name, assign.depth, assign.slot);
+            return;
+        }
+        compile(assign.value);
+        emit(assign.checked ? OpCode.STORE_CHECKED : OpCode.STORE_VAR, assign.name, assign.depth, assign.slot);
+    }
+
+    @Override
+    public Void visitPrintStmt(Stmt.Print stmt) {
+        compile(stmt.expression);
+        emit(OpCode.PRINT, null);
+        return null;
+    }
+
+    @Override
+    public Void visitInputStmt(Stmt.Input stmt) {
+        emit(OpCode.INPUT, null, chunk.addConstant(stmt));
+        return null;
+    }
+
+    @Override
+    public Void visitVarStmt(Stmt.Var stmt) {
+        if (stmt.initializer == null) {
+            emit(OpCode.DEFINE_DEFAULT, stmt.name, chunk.addConstant(stmt));
+            return null;
+        }
+        compile(stmt.initializer);
+        emit(OpCode.DEFINE, stmt.name, chunk.addConstant(stmt));
+        return null;
+    }
+
+    @Override
+    public Void visitVarDeclaration(Stmt.VarDeclaration stmt) {
+        for (Stmt.Var var : stmt.variables) {
+            compile(var.initializer);
+            emit(OpCode.DEFINE, var.name, chunk.addConstant(var));
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitIfStmt(Stmt.If stmt) {
+        int elseJump = compileCondition(stmt.condition);
+        compile(stmt.thenBranch);
+        int endJump = emitJump(OpCode.JUMP, null);
+        patchJump(elseJump);
+        compile(stmt.elseBranch);
+        patchJump(endJump);
+        return null;
+    }
+
+    // Emits a jump taken when the condition is false and returns its operand
+    // for patching. A plain comparison branches directly instead of pushing
+    // a Boolean for JUMP_IF_FALSE to pop.
+    private int compileCondition(Expr condition) {
+        if (condition instanceof Expr.Binary binary) {
+            int op = switch (binary.operator.getTokenType()) {
+                case GREATER_THAN -> OpCode.JUMP_IF_NOT_GREATER;
+                case GREATER_EQUAL -> OpCode.JUMP_IF_NOT_GREATER_EQUAL;
+                case LESS_THAN -> OpCode.JUMP_IF_NOT_LESS;
+                case LESS_EQUAL -> OpCode.JUMP_IF_NOT_LESS_EQUAL;
+                default -> -1;
+            };
+            if (op != -1) {
+                compile(binary.left);
+                compile(binary.right);
+                return emitJump(op, binary.operator);
+            }
+        }
+        compile(condition);
+        return emitJump(OpCode.JUMP_IF_FALSE, null);
+    }
+
+    @Override
+    public Void visitWhileStmt(Stmt.While stmt) {
+        int loopStart = chunk.count;
+        int exitJump = compileCondition(stmt.condition);
+        compile(stmt.body);
+        emitLoop(loopStart, stmt.keyword, statementsIn(stmt.body));
+        patchJump(exitJump);
+        return null;
+    }
+
+    @Override
+    public Void visitBinaryExpr(Expr.Binary expr) {
+        compile(expr.left);
+        compile(expr.right);
+        int op = switch (expr.operator.getTokenType()) {
+            case PLUS -> OpCode.ADD;
+            case MINUS -> OpCode.SUBTRACT;
+            case MULTIPLY -> OpCode.MULTIPLY;
+            case DIVIDE -> OpCode.DIVIDE;
+            case MODULO -> OpCode.MODULO;
+            case GREATER_THAN -> OpCode.GREATER;
+            case GREATER_EQUAL -> OpCode.GREATER_EQUAL;
+            case LESS_THAN -> OpCode.LESS;
+            case LESS_EQUAL -> OpCode.LESS_EQUAL;
+            case EQUALS -> OpCode.EQUAL;
+            case NOT_EQUALS -> OpCode.NOT_EQUAL;
+            case CONCAT -> OpCode.CONCAT;
+            case NEXT_LINE -> OpCode.NEXT_LINE;
+            default -> -1;
+        };
+        if (op == -1) {
+            emit(OpCode.POP, null);
+            emit(OpCode.POP, null);
+            emitConstant(null);
+            return null;
+        }
+        emit(op, expr.operator);
+        return null;
+    }
+
+    @Override
+    public Void visitGroupingExpr(Expr.Grouping expr) {
+        compile(expr.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitLiteralExpr(Expr.Literal expr) {
+        emitConstant(expr.value);
+        return null;
+    }
+
+    @Override
+    public Void visitUnaryExpr(Expr.Unary expr) {
+        compile(expr.right);
+        switch (expr.operator.getTokenType()) {
+            case MINUS -> emit(OpCode.NEGATE, expr.operator);
+            case NOT -> emit(OpCode.NOT, expr.operator);
+            default -> {
+                emit(OpCode.POP, null);
+                emitConstant(null);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitLogicalExpr(Expr.Logical expr) {
+        compile(expr.left);
+        int op = switch (expr.operator.getTokenType()) {
+            case OR -> OpCode.JUMP_IF_TRUE_OR_POP;
+            default -> OpCode.JUMP_IF_FALSE_OR_POP;
+        };
+        int endJump = emitJump(op, expr.operator);
+        compile(expr.right);
+        patchJump(endJump);
+        return null;
+    }
+
+    @Override
+    public Void visitVariableExpr(Expr.Variable expr) {
+        emit(OpCode.GET_VAR, expr.name, expr.depth, expr.slot);
+        return null;
+    }
+
+    @Override
+    public Void visitAssignExpr(Expr.Assign expr) {
+        compile(expr.value);
+        emit(expr.checked ? OpCode.SET_CHECKED : OpCode.SET_VAR, expr.name, expr.depth, expr.slot);
+        return null;
+    }
+
+    @Override
+    public Void visitIncrementExpr(Expr.Increment expr) {
+        emit(OpCode.INCREMENT, expr.name, expr.depth, expr.slot);
+        return null;
+    }
+
+    @Override
+    public Void visitDecrementExpr(Expr.Decrement expr) {
+        emit(OpCode.DECREMENT, expr.name, expr.depth, expr.slot);
+        return null;
+    }
+}
@@ -0,0 +1,834 @@
+package CodeGenerator;
+
+import LexicalAnalyzer.Token;
+import SemanticAnalyzer.Environment;
+import SemanticAnalyzer.Text;
+import SemanticAnalyzer.Values;
+import Utils.RuntimeError;
+
+// Expression nodes. execute() gives the value, boxed, as the Interpreter
+// would. Arithmetic asks its operands for executeNumber() and KUNG and
+// ALANG SA ask for executeCondition(), so numbers and flags go from node to
+// node unboxed; the defaults fall back to execute().
+abstract class ExprNode extends Node {
+    abstract Object execute(Frame frame);
+
+    int executeNumber(Frame frame) {
+        Object value = execute(frame);
+        if (value instanceof Integer i) return i;
+        throw new NotANumber(value);
+    }
+
+    boolean executeCondition(Frame frame) {
+        return Values.isTruthy(execute(frame));
+    }
+
+    // Thrown by executeNumber when the value is not a NUMERO, carrying the
+    // value so the caller can go on without evaluating it twice.
+    static final class NotANumber extends RuntimeException {
+        final Object value;
+
+        NotANumber(Object value) {
+            super(null, null, false, false);
+            this.value = value;
+        }
+    }
+
+    static final class NumberConstant extends ExprNode {
+        private final int value;
+        private final Integer boxed;
+
+        NumberConstant(Integer value) {
+            this.value = value;
+            this.boxed = value;
+        }
+
+        @Override
+        Object execute(Frame frame) {
+            return boxed;
+        }
+
+        @Override
+        int executeNumber(Frame frame) {
+            return value;
+        }
+
+        @Override
+        boolean executeCondition(Frame frame) {
+            return true;
+        }
+    }
+
+    static final class Constant extends ExprNode {
+        private final Object value;
+        private final boolean truthy;
+
+        Constant(Object value) {
+            this.value = value;
+            this.truthy = Values.isTruthy(value);
+        }
+
+        @Override
+        Object execute(Frame frame) {
+            return value;
+        }
+
+        @Override
+        int executeNumber(Frame frame) {
+            throw new NotANumber(value);
+        }
+
+        @Override
+        boolean executeCondition(Frame frame) {
+            return truthy;
+        }
+    }
+
+    // A variable read that has not run yet. The first read looks at what the
+    // slot holds and rewrites it to a read for that kind of value.
+    static final class Read extends ExprNode {
+        final Token name;
+        final int depth;
+        final int slot;
+
+        Read(Token name, int depth, int slot) {
+            this.name = name;
+            this.depth = depth;
+            this.slot = slot;
+        }
+
+        @Override
+        Object execute(Frame frame) {
+            return specialize(frame).execute(frame);
+        }
+
+        @Override
+        int executeNumber(Frame frame) {
+            return specialize(frame).executeNumber(frame);
+        }
+
+        @Override
+        boolean executeCondition(Frame frame) {
+            return specialize(frame).executeCondition(frame);
+        }
+
+        private ExprNode specialize(Frame frame) {
+            if (frame.environment.isNumber(depth, slot)) return replace(new ReadNumber(name, depth, slot));
+            if (frame.environment.isFlag(depth, slot)) return replace(new ReadFlag(name, depth, slot));
+            return replace(new ReadAny(name, depth, slot));
+        }
+    }
+
+    // Reads a slot that held a NUMERO. Anything else turns it into a ReadAny.
+    static final class ReadNumber extends ExprNode {
+        final Token name;
+        final int depth;
+        final int slot;
+
+        ReadNumber(Token name, int depth, int slot) {
+            this.name = name;
+            this.depth = depth;
+            this.slot = slot;
+        }
+
+        @Override
+        Object execute(Frame frame) {
+            if (frame.environment.isNumber(depth, slot)) return frame.environment.getNumber(depth, slot);
+            return generic().execute(frame);
+        }
+
+        @Override
+        int executeNumber(Frame frame) {
+            if (frame.environment.isNumber(depth, slot)) return frame.environment.getNumber(depth, slot);
+            return generic().executeNumber(frame);
+        }
+
+        @Override
+        boolean executeCondition(Frame frame) {
+            if (frame.environment.isNumber(depth, slot)) return true;
+            return generic().executeCondition(frame);
+        }
+
+        private ExprNode generic() {
+            return replace(new ReadAny(name, depth, slot));
+        }
+    }
+
+    // Reads a slot that held a TINUOD. Anything else turns it into a ReadAny.
+    static final class ReadFlag extends ExprNode {
+        final Token name;
+        final int depth;
+        final int slot;
+
+        ReadFlag(Token name, int depth, int slot) {
+            this.name = name;
+            this.depth = depth;
+            this.slot = slot;
+        }
+
+        @Override
+        Object execute(Frame frame) {
+            if (frame.environment.isFlag(depth, slot)) return frame.environment.getFlag(depth, slot);
+            return generic().execute(frame);
+        }
+
+        @Override
+        int executeNumber(Frame frame) {
+            return generic().executeNumber(frame);
+        }
+
+        @Override
+        boolean executeCondition(Frame frame) {
+            if (frame.environment.isFlag(depth, slot)) return frame.environment.getFlag(depth, slot);
+            return generic().executeCondition(frame);
+        }
+
+        private ExprNode generic() {
+            return replace(new ReadAny(name, depth, slot));
+        }
+    }
+
+    static final class ReadAny extends ExprNode {
+        final Token name;
+        final int depth;
+        final int slot;
+
+        ReadAny(Token name, int depth, int slot) {
+            this.name = name;
+            this.depth = depth;
+            this.slot = slot;
+        }
+
+        @Override
+        Object execute(Frame frame) {
+            return frame.environment.get(name, depth, slot);
+        }
+
+        @Override
+        int executeNumber(Frame frame) {
+            if (frame.environment.isNumber(depth, slot)) return frame.environment.getNumber(depth, slot);
+            return super.executeNumber(frame);
+        }
+
+        @Override
+        boolean executeCondition(Frame frame) {
+            if (frame.environment.isFlag(depth, slot)) return frame.environment.getFlag(depth, slot);
+            return super.executeCondition(frame);
+        }
+    }
+
+    abstract static class BinaryNode extends ExprNode {
+        final Token operator;
+        ExprNode left;
+        ExprNode right;
+
+        BinaryNode(Token operator, ExprNode left, ExprNode right) {
+            this.operator = operator;
+            this.left = adopt(left);
+            this.right = adopt(right);
+        }
+
+        @Override
+        void replaceChild(Node child, Node replacement) {
+            if (left == child) left = (ExprNode) replacement;
+            if (right == child) right = (ExprNode) replacement;
+        }
+    }
+
+    // + - * / and % on two NUMERO. An operand that is anything else
+    // rewrites it to an AnyArithmetic.
+    abstract static class Arithmetic extends BinaryNode {
+        Arithmetic(Token operator, ExprNode left, ExprNode right) {
+            super(operator, left, right);
+        }
+
+        abstract int apply(int left, int right);
+
+        @Override
+        Object execute(Frame frame) {
+            try {
+                return executeNumber(frame);
+            } catch (NotANumber notANumber) {
+                return notANumber.value;
+            }
+        }
+
+        @Override
+        int executeNumber(Frame frame) {
+            int l;
+            try {
+                l = left.executeNumber(frame);
+            } catch (NotANumber notANumber) {
+                return generic().number(notANumber.value, right.execute(frame));
+            }
+            int r;
+            try {
+                r = right.executeNumber(frame);
+            } catch (NotANumber notANumber) {
+                return generic().number(l, notANumber.value);
+            }
+            return apply(l, r);
+        }
+
+        @Override
+        boolean executeCondition(Frame frame) {
+            execute(frame);
+            return true;
+        }
+
+        private AnyArithmetic generic() {
+            return replace(new AnyArithmetic(operator, left, right));
+        }
+    }
+
+    static final class Add extends Arithmetic {
+        Add(Token operator, ExprNode left, ExprNode right) {
+            super(operator, left, right);
+        }
+
+        @Override
+        int apply(int left, int right) {
+            return left + right;
+        }
+    }
+
+    static final class Subtract extends Arithmetic {
+        Subtract(Token operator, ExprNode left, ExprNode right) {
+            super(operator, left, right);
+        }
+
+        @Override
+        int apply(int left, int right) {
+            return left - right;
+        }
+    }
+
+    static final class Multiply extends Arithmetic {
+        Multiply(Token operator, ExprNode left, ExprNode right) {
+            super(operator, left, right);
+        }
+
+        @Override
+        int apply(int left, int right) {
+            return left * right;
+        }
+    }
+
+    static final class Divide extends Arithmetic {
+        Divide(Token operator, ExprNode left, ExprNode right) {
+            super(operator, left, right);
+        }
+
+        @Override
+        int apply(int left, int right) {
+            return Values.divide(operator, left, right);
+        }
+    }
+
+    static final class Modulo extends Arithmetic {
+        Modulo(Token operator, ExprNode left, ExprNode right) {
+            super(operator, left, right);
+        }
+
+        @Override
+        int apply(int left, int right) {
+            return Values.remainder(operator, left, right);
+        }
+    }
+
+    // Arithmetic that has seen a TIPIK (or a value it fails on).
+    static final class AnyArithmetic extends BinaryNode {
+        AnyArithmetic(Token operator, ExprNode left, ExprNode right) {
+            super(operator, left, right);
+        }
+
+        @Override
+        Object execute(Frame frame) {
+            Object l = left.execute(frame);
+            return Values.arithmetic(operator, l, right.execute(frame));
+        }
+
+        @Override
+        int executeNumber(Frame frame) {
+            Object l = left.execute(frame);
+            return number(l, right.execute(frame));
+        }
+
+        int number(Object l, Object r) {
+            Object result = Values.arithmetic(operator, l, r);
+            if (result instanceof Integer i) return i;
+            throw new NotANumber(result);
+        }
+
+        @Override
+        boolean executeCondition(Frame frame) {
+            execute(frame);
+            return true;
+        }
+    }
+
+    // >, >=, < and <= on two NUMERO. An operand that is anything else
+    // rewrites it to an AnyComparison.
+    abstract static class Comparison extends BinaryNode {
+        Comparison(Token operator, ExprNode left, ExprNode right) {
+            super(operator, left, right);
+        }
+
+        abstract boolean test(int left, int right);
+
+        @Override
+        Object execute(Frame frame) {
+            return executeCondition(frame);
+        }
+
+        @Override
+        boolean executeCondition(Frame frame) {
+            int l;
+            try {
+                l = left.executeNumber(frame);
+            } catch (NotANumber notANumber) {
+                return generic().test(notANumber.value, right.execute(frame));
+            }
+            int r;
+            try {
+                r = right.executeNumber(frame);
+            } catch (NotANumber notANumber) {
+                return generic().test(l, notANumber.value);
+            }
+            return test(l, r);
+        }
+
+        private AnyComparison generic() {
+            return replace(new AnyComparison(operator, left, right));
+        }
+    }
+
+    static final class Greater extends Comparison {
+        Greater(Token operator, ExprNode left, ExprNode right) {
+            super(operator, left, right);
+        }
+
+        @Override
+        boolean test(int left, int right) {
+            return left > right;
+        }
+    }
+
+    static final class GreaterEqual extends Comparison {
+        GreaterEqual(Token operator, ExprNode left, ExprNode right) {
+            super(operator, left, right);
+        }
+
+        @Override
+        boolean test(int left, int right) {
+            return left >= right;
+        }
+    }
+
+    static final class Less extends Comparison {
+        Less(Token operator, ExprNode left, ExprNode right) {
+            super(operator, left, right);
+        }
+
+        @Override
+        boolean test(int left, int right) {
+            return left < right;
+        }
+    }
+
+    static final class LessEqual extends Comparison {
+        LessEqual(Token operator, ExprNode left, ExprNode right) {
+            super(operator, left, right);
+        }
+
+        @Override
+        boolean test(int left, int right) {
+            return left <= right;
+        }
+    }
+
+    static final class AnyComparison extends BinaryNode {
+        AnyComparison(Token operator, ExprNode left, ExprNode right) {
+            super(operator, left, right);
+        }
+
+        @Override
+        Object execute(Frame frame) {
+            return executeCondition(frame);
+        }
+
+        @Override
+        boolean executeCondition(Frame frame) {
+            Object l = left.execute(frame);
+            return test(l, right.execute(frame));
+        }
+
+        boolean test(Object l, Object r) {
+            return Values.compare(operator, l, r);
+        }
+    }
+
+    // == and <>, before the first run. Two NUMERO operands make it a
+    // NumberEquality, anything else an AnyEquality.
+    static final class Equality extends BinaryNode {
+        final boolean negated;
+
+        Equality(Token operator, ExprNode left, ExprNode right, boolean negated) {
+            super(operator, left, right);
+            this.negated = negated;
+        }
+
+        @Override
+        Object execute(Frame frame) {
+            return executeCondition(frame);
+        }
+
+        @Override
+        boolean executeCondition(Frame frame) {
+            Object l = left.execute(frame);
+            Object r = right.execute(frame);
+            if (l instanceof Integer && r instanceof Integer) {
+                replace(new NumberEquality(operator, left, right, negated));
+            } else {
+                replace(new AnyEquality(operator, left, right, negated));
+            }
+            return Values.isEqual(l, r) != negated;
+        }
+    }
+
+    static final class NumberEquality extends BinaryNode {
+        final boolean negated;
+
+        NumberEquality(Token operator, ExprNode left, ExprNode right, boolean negated) {
+            super(operator, left, right);
+            this.negated = negated;
+        }
+
+        @Override
+        Object execute(Frame frame) {
+            return executeCondition(frame);
+        }
+
+        @Override
+        boolean executeCondition(Frame frame) {
+            int l;
+            try {
+                l = left.executeNumber(frame);
+            } catch (NotANumber notANumber) {
+                return generic().test(notANumber.value, right.execute(frame));
+            }
+            int r;
+            try {
+                r = right.executeNumber(frame);
+            } catch (NotANumber notANumber) {
+                return generic().test(l, notANumber.value);
+            }
+            return (l == r) != negated;
+        }
+
+        private AnyEquality generic() {
+            return replace(new AnyEquality(operator, left, right, negated));
+        }
+    }
+
+    static final class AnyEquality extends BinaryNode {
+        final boolean negated;
+
+        AnyEquality(Token operator, ExprNode left, ExprNode right, boolean negated) {
+            super(operator, left, right);
+            this.negated = negated;
+        }
+
+        @Override
+        Object execute(Frame frame) {
+            return executeCondition(frame);
+        }
+
+        @Override
+        boolean executeCondition(Frame frame) {
+            return test(left.execute(frame), right.execute(frame));
+        }
+
+        boolean test(Object l, Object r) {
+            return Values.isEqual(l, r) != negated;
+        }
+    }
+
+    // & and $.
+    static final class Concat extends BinaryNode {
+        final boolean newline;
+
+        Concat(Token operator, ExprNode left, ExprNode right, boolean newline) {
+            super(operator, left, right);
+            this.newline = newline;
+        }
+
+        @Override
+        Object execute(Frame frame) {
+            return Text.concat(left.execute(frame), right.execute(frame), newline);
+        }
+    }
+
+    // An operator the Interpreter has no case for: both sides run, the
+    // result is null.
+    static final class Discard extends BinaryNode {
+        Discard(Token operator, ExprNode left, ExprNode right) {
+            super(operator, left, right);
+        }
+
+        @Override
+        Object execute(Frame frame) {
+            left.execute(frame);
+            right.execute(frame);
+            return null;
+        }
+    }
+
+    // UG and O give back one of their operands.
+    static final class Or extends BinaryNode {
+        Or(Token operator, ExprNode left, ExprNode right) {
+            super(operator, left, right);
+        }
+
+        @Override
+        Object execute(Frame frame) {
+            Object l = left.execute(frame);
+            return Values.isTruthy(l) ? l : right.execute(frame);
+        }
+
+        @Override
+        boolean executeCondition(Frame frame) {
+            return left.executeCondition(frame) || right.executeCondition(frame);
+        }
+    }
+
+    static final class And extends BinaryNode {
+        And(Token operator, ExprNode left, ExprNode right) {
+            super(operator, left, right);
+        }
+
+        @Override
+        Object execute(Frame frame) {
+            Object l = left.execute(frame);
+            return !Values.isTruthy(l) ? l : right.execute(frame);
+        }
+
+        @Override
+        boolean executeCondition(Frame frame) {
+            return left.executeCondition(frame) && right.executeCondition(frame);
+        }
+    }
+
+    abstract static class UnaryNode extends ExprNode {
+        final Token operator;
+        ExprNode operand;
+
+        UnaryNode(Token operator, ExprNode operand) {
+            this.operator = operator;
+            this.operand = adopt(operand);
+        }
+
+        @Override
+        void replaceChild(Node child, Node replacement) {
+            if (operand == child) operand = (ExprNode) replacement;
+        }
+    }
+
+    static final class Negate extends UnaryNode {
+        Negate(Token operator, ExprNode operand) {
+            super(operator, operand);
+        }
+
+        @Override
+        Object execute(Frame frame) {
+            try {
+                return -operand.executeNumber(frame);
+            } catch (NotANumber notANumber) {
+                return Values.negate(operator, notANumber.value);
+            }
+        }
+
+        @Override
+        int executeNumber(Frame frame) {
+            try {
+                return -operand.executeNumber(frame);
+            } catch (NotANumber notANumber) {
+                throw new NotANumber(Values.negate(operator, notANumber.value));
+            }
+        }
+
+        @Override
+        boolean executeCondition(Frame frame) {
+            executeNumber(frame);
+            return true;
+        }
+    }
+
+    static final class Not extends UnaryNode {
+        Not(Token operator, ExprNode operand) {
+            super(operator, operand);
+        }
+
+        @Override
+        Object execute(Frame frame) {
+            return executeCondition(frame);
+        }
+
+        @Override
+        boolean executeCondition(Frame frame) {
+            return !Values.isTruthy(operand.execute(frame));
+        }
+    }
+
+    static final class DiscardUnary extends UnaryNode {
+        DiscardUnary(Token operator, ExprNode operand) {
+            super(operator, operand);
+        }
+
+        @Override
+        Object execute(Frame frame) {
+            operand.execute(frame);
+            return null;
+        }
+    }
+
+    static final class Assign extends ExprNode {
+        final Token name;
+        final int depth;
+        final int slot;
+        final boolean checked;
+        ExprNode value;
+
+        Assign(Token name, int depth, int slot, boolean checked, ExprNode value) {
+            this.name = name;
+            this.depth = depth;
+            this.slot = slot;
+            this.checked = checked;
+            this.value = adopt(value);
+        }
+
+        @Override
+        Object execute(Frame frame) {
+            Object result = value.execute(frame);
+            store(frame, result);
+            return result;
+        }
+
+        // Stores a value the checker did not prove right only after looking
+        // at the variable's type.
+        void store(Frame frame, Object result) {
+            Environment environment = frame.environment;
+            if (checked) {
+                environment.assignTyped(name, depth, slot, result);
+                return;
+            }
+            String type = environment.getType(name, depth, slot);
+            if (result != null && !Values.isTypeCompatible(type, result)) {
+                throw new RuntimeError(name, "Expected " + type + " for assignment.");
+            }
+            environment.assign(name, depth, slot, result);
+        }
+
+        @Override
+        void replaceChild(Node child, Node replacement) {
+            if (value == child) value = (ExprNode) replacement;
+        }
+    }
+
+    // ++ and --, by delta.
+    static final class Step extends ExprNode {
+        final Token name;
+        final int depth;
+        final int slot;
+        final int delta;
+
+        Step(Token name, int depth, int slot, int delta) {
+            this.name = name;
+            this.depth = depth;
+            this.slot = slot;
+            this.delta = delta;
+        }
+
+        @Override
+        Object execute(Frame frame) {
+            return executeNumber(frame);
+        }
+
+        @Override
+        int executeNumber(Frame frame) {
+            Environment environment = frame.environment;
+            if (environment.isNumber(depth, slot)) {
+                int result = environment.getNumber(depth, slot) + delta;
+                environment.assignNumber(name, depth, slot, result);
+                return result;
+            }
+            Object value = environment.get(name, depth, slot);
+            if (value instanceof Integer num) {
+                int result = num + delta;
+                environment.assign(name, depth, slot, result);
+                return result;
+            }
+            throw new RuntimeError(name, "Only numbers can be incremented or decremented.");
+        }
+
+        @Override
+        boolean executeCondition(Frame frame) {
+            executeNumber(frame);
+            return true;
+        }
+    }
+
+    // An expression that reads no variable its loop writes (see
+    // NodeCompiler). It still runs where it stands the first time it is
+    // reached after the loop starts, so an error comes at the same point;
+    // later iterations reuse the value until the loop starts again.
+    static final class Invariant extends ExprNode {
+        ExprNode expression;
+        private boolean valid;
+        private Object value;
+        private boolean isNumber;
+        private int number;
+        private boolean truthy;
+
+        Invariant(ExprNode expression) {
+            this.expression = adopt(expression);
+        }
+
+        void reset() {
+            valid = false;
+            value = null;
+        }
+
+        @Override
+        Object execute(Frame frame) {
+            if (!valid) evaluate(frame);
+            return value;
+        }
+
+        @Override
+        int executeNumber(Frame frame) {
+            if (!valid) evaluate(frame);
+            if (isNumber) return number;
+            throw new NotANumber(value);
+        }
+
+        @Override
+        boolean executeCondition(Frame frame) {
+            if (!valid) evaluate(frame);
+            return truthy;
+        }
+
+        private void evaluate(Frame frame) {
+            value = expression.execute(frame);
+            isNumber = value instanceof Integer;
+            if (isNumber) number = (Integer) value;
+            truthy = Values.isTruthy(value);
+            valid = true;
+        }
+
+        @Override
+        void replaceChild(Node child, Node replacement) {
+            if (expression == child) expression = (ExprNode) replacement;
+        }
+    }
+}
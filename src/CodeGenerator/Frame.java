@@ -0,0 +1,24 @@
+package CodeGenerator;
+
+import SemanticAnalyzer.Environment;
+import Utils.Budget;
+import Utils.Input;
+import Utils.Output;
+
+// What the nodes of one run share: the variables, input and output, and
+// the step count checked against the budget at loop back-edges.
+final class Frame {
+    final Environment environment = new Environment();
+    final Output output;
+    final Input input;
+    final Budget budget;
+    long steps = 0;
+    int depth = 0;
+    int maxDepth = 0;
+
+    Frame(Output output, Input input, Budget budget) {
+        this.output = output;
+        this.input = input;
+        this.budget = budget;
+    }
+}
@@ -0,0 +1,166 @@
+package CodeGenerator;
+
+import SyntaxAnalyzer.Expr;
+import SyntaxAnalyzer.Stmt;
+
+import java.util.BitSet;
+import java.util.List;
+
+// Collects the variables a loop writes: assignments, ++, DAWAT and MUGNA
+// anywhere in its condition and body, nested loops included. SUGOD and
+// PUNDOK share one scope (see Resolver), so a slot is a variable.
+final class LoopAnalysis implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
+    private final BitSet written = new BitSet();
+
+    private LoopAnalysis() {
+    }
+
+    static BitSet writesOf(Stmt.While loop) {
+        LoopAnalysis analysis = new LoopAnalysis();
+        analysis.visitWhileStmt(loop);
+        return analysis.written;
+    }
+
+    static BitSet writesOf(List<Stmt> statements) {
+        LoopAnalysis analysis = new LoopAnalysis();
+        for (Stmt statement : statements) analysis.scan(statement);
+        return analysis.written;
+    }
+
+    // True when the value of expr cannot change while none of the written
+    // variables do: it writes nothing and reads only other variables.
+    static boolean isInvariant(Expr expr, BitSet written) {
+        if (expr == null || expr instanceof Expr.Literal) return true;
+        if (expr instanceof Expr.Variable variable) return !written.get(variable.slot);
+        if (expr instanceof Expr.Grouping grouping) return isInvariant(grouping.expression, written);
+        if (expr instanceof Expr.Unary unary) return isInvariant(unary.right, written);
+        if (expr instanceof Expr.Binary binary) {
+            return isInvariant(binary.left, written) && isInvariant(binary.right, written);
+        }
+        if (expr instanceof Expr.Logical logical) {
+            return isInvariant(logical.left, written) && isInvariant(logical.right, written);
+        }
+        return false;
+    }
+
+    private void scan(Stmt stmt) {
+        if (stmt != null) stmt.accept(this);
+    }
+
+    private void scan(Expr expr) {
+        if (expr != null) expr.accept(this);
+    }
+
+    @Override
+    public Void visitBlockStmt(Stmt.Block stmt) {
+        for (Stmt statement : stmt.statements) scan(statement);
+        return null;
+    }
+
+    @Override
+    public Void visitSugodStmt(Stmt.Sugod stmt) {
+        for (Stmt statement : stmt.statements) scan(statement);
+        return null;
+    }
+
+    @Override
+    public Void visitExpressionStmt(Stmt.Expression stmt) {
+        scan(stmt.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitPrintStmt(Stmt.Print stmt) {
+        scan(stmt.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitInputStmt(Stmt.Input stmt) {
+        for (int slot : stmt.slots) written.set(slot);
+        return null;
+    }
+
+    @Override
+    public Void visitVarStmt(Stmt.Var stmt) {
+        scan(stmt.initializer);
+        written.set(stmt.slot);
+        return null;
+    }
+
+    @Override
+    public Void visitVarDeclaration(Stmt.VarDeclaration stmt) {
+        for (Stmt.Var var : stmt.variables) visitVarStmt(var);
+        return null;
+    }
+
+    @Override
+    public Void visitIfStmt(Stmt.If stmt) {
+        scan(stmt.condition);
+        scan(stmt.thenBranch);
+        scan(stmt.elseBranch);
+        return null;
+    }
+
+    @Override
+    public Void visitWhileStmt(Stmt.While stmt) {
+        scan(stmt.condition);
+        scan(stmt.body);
+        return null;
+    }
+
+    @Override
+    public Void visitBinaryExpr(Expr.Binary expr) {
+        scan(expr.left);
+        scan(expr.right);
+        return null;
+    }
+
+    @Override
+    public Void visitGroupingExpr(Expr.Grouping expr) {
+        scan(expr.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitLiteralExpr(Expr.Literal expr) {
+        return null;
+    }
+
+    @Override
+    public Void visitUnaryExpr(Expr.Unary expr) {
+        scan(expr.right);
+        return null;
+    }
+
+    @Override
+    public Void visitVariableExpr(Expr.Variable expr) {
+        return null;
+    }
+
+    @Override
+    public Void visitAssignExpr(Expr.Assign expr) {
+        scan(expr.value);
+        written.set(expr.slot);
+        return null;
+    }
+
+    @Override
+    public Void visitLogicalExpr(Expr.Logical expr) {
+        scan(expr.left);
+        scan(expr.right);
+        return null;
+    }
+
+    @Override
+    public Void visitIncrementExpr(Expr.Increment expr) {
+        written.set(expr.slot);
+        return null;
+    }
+
+    @Override
+    public Void visitDecrementExpr(Expr.Decrement expr) {
+        written.set(expr.slot);
+        return null;
+    }
+}
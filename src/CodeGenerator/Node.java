@@ -0,0 +1,29 @@
+package CodeGenerator;
+
+// Base of the tree the NodeInterpreter runs. A node starts out as a guess
+// made from the first values it sees and, when a value it was not built for
+// turns up, replaces itself through its parent with a more general node;
+// the parent calls the new node from then on. Each node so settles on the
+// cheapest code for what that spot of the program actually does, and
+// going back to a general node is a one-way step, so a node is rewritten at
+// most twice.
+abstract class Node {
+    private Node parent;
+
+    final <T extends Node> T adopt(T child) {
+        if (child != null) ((Node) child).parent = this;
+        return child;
+    }
+
+    // Returns the replacement, for the caller to finish the current
+    // execution with.
+    final <T extends Node> T replace(T replacement) {
+        ((Node) replacement).parent = parent;
+        parent.replaceChild(this, replacement);
+        return replacement;
+    }
+
+    void replaceChild(Node child, Node replacement) {
+        throw new IllegalStateException(getClass().getSimpleName() + " has no children");
+    }
+}
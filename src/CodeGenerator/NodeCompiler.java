@@ -0,0 +1,294 @@
+package CodeGenerator;
+
+import LexicalAnalyzer.Token;
+import LexicalAnalyzer.TokenType;
+import SyntaxAnalyzer.Expr;
+import SyntaxAnalyzer.Stmt;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+// Builds the node tree the NodeInterpreter runs from resolved and
+// type-checked statements. Nodes rewrite themselves as they run, so every
+// run gets a tree of its own.
+//
+// Inside loops, an operation on values the loop never writes becomes an
+// ExprNode.Invariant owned by the outermost loop it does not change in,
+// and a counted ALANG SA becomes a StmtNode.CountedLoop.
+class NodeCompiler implements Expr.Visitor<ExprNode>, Stmt.Visitor<StmtNode> {
+    // A loop being compiled: what it writes and the invariants it resets.
+    private static final class Loop {
+        final BitSet written;
+        final List<ExprNode.Invariant> invariants = new ArrayList<>();
+
+        Loop(BitSet written) {
+            this.written = written;
+        }
+    }
+
+    private final List<Loop> loops = new ArrayList<>();   // outermost first
+    private boolean hoisting;
+
+    StmtNode compile(List<Stmt> statements) {
+        return new StmtNode.Sequence(compileAll(statements));
+    }
+
+    private List<StmtNode> compileAll(List<Stmt> statements) {
+        List<StmtNode> nodes = new ArrayList<>(statements.size());
+        for (int i = 0; i < statements.size(); i++) nodes.add(compile(statements.get(i)));
+        return nodes;
+    }
+
+    private StmtNode compile(Stmt stmt) {
+        return stmt == null ? null : stmt.accept(this);
+    }
+
+    private ExprNode compile(Expr expr) {
+        if (expr == null) return new ExprNode.Constant(null);
+        if (hoisting || loops.isEmpty() || !isOperation(expr)) return expr.accept(this);
+        for (Loop loop : loops) {
+            if (!LoopAnalysis.isInvariant(expr, loop.written)) continue;
+            hoisting = true;
+            ExprNode node = expr.accept(this);
+            hoisting = false;
+            ExprNode.Invariant invariant = new ExprNode.Invariant(node);
+            loop.invariants.add(invariant);
+            return invariant;
+        }
+        return expr.accept(this);
+    }
+
+    // Literals and reads cost no more than a cached value would.
+    private static boolean isOperation(Expr expr) {
+        return expr instanceof Expr.Binary || expr instanceof Expr.Unary || expr instanceof Expr.Logical;
+    }
+
+    @Override
+    public StmtNode visitBlockStmt(Stmt.Block stmt) {
+        return new StmtNode.Block(compileAll(stmt.statements));
+    }
+
+    @Override
+    public StmtNode visitSugodStmt(Stmt.Sugod stmt) {
+        return new StmtNode.Block(compileAll(stmt.statements));
+    }
+
+    @Override
+    public StmtNode visitExpressionStmt(Stmt.Expression stmt) {
+        if (stmt.expression instanceof Expr.Variable variable) {
+            return new StmtNode.Check(variable.name, variable.depth, variable.slot, compile(variable));
+        }
+        if (stmt.expression instanceof Expr.Assign assign) {
+            boolean typed = assign.checked && "NUMERO".equals(assign.value.type);
+            return new StmtNode.Assignment((ExprNode.Assign) compile(assign), typed, stepOf(assign));
+        }
+        return new StmtNode.Expression(compile(stmt.expression));
+    }
+
+    // +1 or -1 when the assignment is the x++ the parser builds for x, else 0.
+    private static int stepOf(Expr.Assign expr) {
+        if (expr.value instanceof Expr.Increment increment
+                && increment.depth == expr.depth && increment.slot == expr.slot) return 1;
+        if (expr.value instanceof Expr.Decrement decrement
+                && decrement.depth == expr.depth && decrement.slot == expr.slot) return -1;
+        return 0;
+    }
+
+    @Override
+    public StmtNode visitPrintStmt(Stmt.Print stmt) {
+        return new StmtNode.Print(compile(stmt.expression));
+    }
+
+    @Override
+    public StmtNode visitInputStmt(Stmt.Input stmt) {
+        return new StmtNode.Input(stmt.getVariableNames().toArray(new Token[0]), stmt.depths, stmt.slots);
+    }
+
+    @Override
+    public StmtNode visitVarStmt(Stmt.Var stmt) {
+        ExprNode initializer = stmt.initializer != null ? compile(stmt.initializer) : null;
+        return new StmtNode.Define(stmt.name, stmt.slot, stmt.getType(), initializer);
+    }
+
+    @Override
+    public StmtNode visitVarDeclaration(Stmt.VarDeclaration stmt) {
+        int count = stmt.variables.size();
+        Token[] names = new Token[count];
+        int[] slots = new int[count];
+        String[] types = new String[count];
+        boolean[] checked = new boolean[count];
+        ExprNode[] initializers = new ExprNode[count];
+        for (int i = 0; i < count; i++) {
+            Stmt.Var var = stmt.variables.get(i);
+            names[i] = var.name;
+            slots[i] = var.slot;
+            types[i] = var.getType();
+            checked[i] = var.checked;
+            initializers[i] = var.initializer != null ? compile(var.initializer) : null;
+        }
+        return new StmtNode.Declaration(names, slots, types, checked, initializers);
+    }
+
+    @Override
+    public StmtNode visitIfStmt(Stmt.If stmt) {
+        return new StmtNode.If(compile(stmt.condition), compile(stmt.thenBranch), compile(stmt.elseBranch));
+    }
+
+    @Override
+    public StmtNode visitWhileStmt(Stmt.While stmt) {
+        Loop loop = new Loop(LoopAnalysis.writesOf(stmt));
+        loops.add(loop);
+        StmtNode node = countedLoop(stmt, loop);
+        if (node == null) {
+            node = new StmtNode.While(stmt.keyword, compile(stmt.condition), compile(stmt.body), loop.invariants);
+        }
+        loops.remove(loops.size() - 1);
+        return node;
+    }
+
+    // The While the parser builds for ALANG SA (..., i < n, i++) as a
+    // CountedLoop, or null when it is not one: the condition compares i
+    // with a bound the loop does not change, the body ends in i++ or
+    // i = i + a NUMERO literal, and nothing before that writes i.
+    private StmtNode countedLoop(Stmt.While stmt, Loop loop) {
+        if (!(unwrap(stmt.condition) instanceof Expr.Binary condition)) return null;
+        if (!(stmt.body instanceof Stmt.Block block) || block.statements.isEmpty()) return null;
+        List<Stmt> statements = block.statements;
+        if (!(statements.get(statements.size() - 1) instanceof Stmt.Expression last)
+                || !(last.expression instanceof Expr.Assign increment)) return null;
+        int step = inductionStep(increment);
+        if (step == 0) return null;
+
+        TokenType comparison = condition.operator.getTokenType();
+        if (mirror(comparison) == null) return null;
+        Expr bound;
+        if (isVariable(unwrap(condition.left), increment.slot)) {
+            bound = condition.right;
+        } else if (isVariable(unwrap(condition.right), increment.slot)) {
+            bound = condition.left;
+            comparison = mirror(comparison);
+        } else {
+            return null;
+        }
+        if (!LoopAnalysis.isInvariant(bound, loop.written)) return null;
+        List<Stmt> body = statements.subList(0, statements.size() - 1);
+        if (LoopAnalysis.writesOf(body).get(increment.slot)) return null;
+
+        return new StmtNode.CountedLoop(stmt.keyword, increment.name, increment.depth, increment.slot,
+                comparison, step, compile(bound), compile(stmt.condition),
+                new StmtNode.Sequence(compileAll(body)), compile(last), loop.invariants);
+    }
+
+    // The step of i = i++ or i = i + k (or i - k) for a NUMERO literal k,
+    // else 0.
+    private static int inductionStep(Expr.Assign increment) {
+        int step = stepOf(increment);
+        if (step != 0) return step;
+        if (!(unwrap(increment.value) instanceof Expr.Binary sum)
+                || !isVariable(unwrap(sum.left), increment.slot)
+                || !(unwrap(sum.right) instanceof Expr.Literal literal)
+                || !(literal.value instanceof Integer k)) return 0;
+        return switch (sum.operator.getTokenType()) {
+            case PLUS -> k;
+            case MINUS -> -k;
+            default -> 0;
+        };
+    }
+
+    // i < n read from the other side, n > i; null for anything but the
+    // comparisons a CountedLoop tests.
+    private static TokenType mirror(TokenType comparison) {
+        return switch (comparison) {
+            case LESS_THAN -> TokenType.GREATER_THAN;
+            case LESS_EQUAL -> TokenType.GREATER_EQUAL;
+            case GREATER_THAN -> TokenType.LESS_THAN;
+            case GREATER_EQUAL -> TokenType.LESS_EQUAL;
+            case NOT_EQUALS -> TokenType.NOT_EQUALS;
+            default -> null;
+        };
+    }
+
+    private static boolean isVariable(Expr expr, int slot) {
+        return expr instanceof Expr.Variable variable && variable.slot == slot;
+    }
+
+    private static Expr unwrap(Expr expr) {
+        while (expr instanceof Expr.Grouping grouping) expr = grouping.expression;
+        return expr;
+    }
+
+    @Override
+    public ExprNode visitLiteralExpr(Expr.Literal expr) {
+        if (expr.value instanceof Integer i) return new ExprNode.NumberConstant(i);
+        return new ExprNode.Constant(expr.value);
+    }
+
+    @Override
+    public ExprNode visitGroupingExpr(Expr.Grouping expr) {
+        return compile(expr.expression);
+    }
+
+    @Override
+    public ExprNode visitVariableExpr(Expr.Variable expr) {
+        return new ExprNode.Read(expr.name, expr.depth, expr.slot);
+    }
+
+    @Override
+    public ExprNode visitAssignExpr(Expr.Assign expr) {
+        return new ExprNode.Assign(expr.name, expr.depth, expr.slot, expr.checked, compile(expr.value));
+    }
+
+    @Override
+    public ExprNode visitUnaryExpr(Expr.Unary expr) {
+        ExprNode operand = compile(expr.right);
+        return switch (expr.operator.getTokenType()) {
+            case MINUS -> new ExprNode.Negate(expr.operator, operand);
+            case NOT -> new ExprNode.Not(expr.operator, operand);
+            default -> new ExprNode.DiscardUnary(expr.operator, operand);
+        };
+    }
+
+    @Override
+    public ExprNode visitBinaryExpr(Expr.Binary expr) {
+        Token operator = expr.operator;
+        ExprNode left = compile(expr.left);
+        ExprNode right = compile(expr.right);
+        return switch (operator.getTokenType()) {
+            case PLUS -> new ExprNode.Add(operator, left, right);
+            case MINUS -> new ExprNode.Subtract(operator, left, right);
+            case MULTIPLY -> new ExprNode.Multiply(operator, left, right);
+            case DIVIDE -> new ExprNode.Divide(operator, left, right);
+            case MODULO -> new ExprNode.Modulo(operator, left, right);
+            case GREATER_THAN -> new ExprNode.Greater(operator, left, right);
+            case GREATER_EQUAL -> new ExprNode.GreaterEqual(operator, left, right);
+            case LESS_THAN -> new ExprNode.Less(operator, left, right);
+            case LESS_EQUAL -> new ExprNode.LessEqual(operator, left, right);
+            case EQUALS -> new ExprNode.Equality(operator, left, right, false);
+            case NOT_EQUALS -> new ExprNode.Equality(operator, left, right, true);
+            case CONCAT -> new ExprNode.Concat(operator, left, right, false);
+            case NEXT_LINE -> new ExprNode.Concat(operator, left, right, true);
+            default -> new ExprNode.Discard(operator, left, right);
+        };
+    }
+
+    @Override
+    public ExprNode visitLogicalExpr(Expr.Logical expr) {
+        ExprNode left = compile(expr.left);
+        ExprNode right = compile(expr.right);
+        return switch (expr.operator.getTokenType()) {
+            case OR -> new ExprNode.Or(expr.operator, left, right);
+            default -> new ExprNode.And(expr.operator, left, right);
+        };
+    }
+
+    @Override
+    public ExprNode visitIncrementExpr(Expr.Increment expr) {
+        return new ExprNode.Step(expr.name, expr.depth, expr.slot, 1);
+    }
+
+    @Override
+    public ExprNode visitDecrementExpr(Expr.Decrement expr) {
+        return new ExprNode.Step(expr.name, expr.depth, expr.slot, -1);
+    }
+}
@@ -0,0 +1,65 @@
+package CodeGenerator;
+
+import SyntaxAnalyzer.Stmt;
+import Utils.Diagnostics;
+import Utils.Input;
+import Utils.Limits;
+import Utils.Output;
+import Utils.RuntimeError;
+
+import java.util.List;
+
+// Third engine, next to the Interpreter and the VirtualMachine: runs the
+// statements as a tree of nodes that specialize themselves on the values
+// they see (see Node). A read of a NUMERO variable becomes a node that
+// reads the primitive slot, == on two NUMERO one that compares ints, and
+// arithmetic and conditions pass unboxed values between nodes until a
+// TIPIK turns them into their boxed form. The output and errors are the
+// Interpreter's.
+public class NodeInterpreter {
+    private final Output output;
+    private final Input input;
+    private final Diagnostics diagnostics;
+    private final Limits limits;
+    private Frame frame;
+
+    public NodeInterpreter() {
+        this(Output.standard());
+    }
+
+    public NodeInterpreter(Output output) {
+        this(output, Input.standard(), Diagnostics.printing());
+    }
+
+    public NodeInterpreter(Output output, Input input, Diagnostics diagnostics) {
+        this(output, input, diagnostics, Limits.NONE);
+    }
+
+    public NodeInterpreter(Output output, Input input, Diagnostics diagnostics, Limits limits) {
+        this.output = output;
+        this.input = input;
+        this.diagnostics = diagnostics;
+        this.limits = limits;
+    }
+
+    public void interpret(List<Stmt> statements) {
+        StmtNode root = new NodeCompiler().compile(statements);
+        frame = new Frame(output, input, limits.start());
+        try {
+            root.execute(frame);
+        } catch (RuntimeError error) {
+            output.flush();
+            diagnostics.runtimeError(error);
+        } finally {
+            output.flush();
+        }
+    }
+
+    public long statementsExecuted() {
+        return frame == null ? 0 : frame.steps;
+    }
+
+    public int maxBlockDepth() {
+        return frame == null ? 0 : frame.maxDepth;
+    }
+}
@@ -0,0 +1,111 @@
+package CodeGenerator;
+
+// Instruction set of the bytecode VM. Operands follow the opcode in the
+// code array, one int each; the comment lists them in order.
+public final class OpCode {
+    private OpCode() {
+    }
+
+    public static final int CONSTANT = 0;        // index
+    public static final int POP = 1;
+    public static final int GET_VAR = 2;         // depth, slot
+    public static final int SET_VAR = 3;         // depth, slot
+    public static final int CHECK_VAR = 4;       // depth, slot
+    public static final int DEFINE = 5;          // Stmt.Var index
+    public static final int DEFINE_DEFAULT = 6;  // Stmt.Var index
+    public static final int INCREMENT = 7;       // depth, slot
+    public static final int DECREMENT = 8;       // depth, slot
+    public static final int NEGATE = 9;
+    public static final int NOT = 10;
+    public static final int ADD = 11;
+    public static final int SUBTRACT = 12;
+    public static final int MULTIPLY = 13;
+    public static final int DIVIDE = 14;
+    public static final int GREATER = 15;
+    public static final int GREATER_EQUAL = 16;
+    public static final int LESS = 17;
+    public static final int LESS_EQUAL = 18;
+    public static final int EQUAL = 19;
+    public static final int NOT_EQUAL = 20;
+    public static final int CONCAT = 21;
+    public static final int NEXT_LINE = 22;
+    public static final int PRINT = 23;
+    public static final int INPUT = 24;          // Stmt.Input index
+    public static final int JUMP = 25;           // offset
+    public static final int JUMP_IF_FALSE = 26;  // offset, pops the condition
+    public static final int JUMP_IF_TRUE_OR_POP = 27;   // offset
+    public static final int JUMP_IF_FALSE_OR_POP = 28;  // offset
+    public static final int LOOP = 29;           // offset, statements run per pass
+    public static final int RETURN = 30;
+    public static final int STORE_VAR = 31;      // depth, slot; SET_VAR + POP
+    public static final int INCREMENT_VAR = 32;  // depth, slot; x++ as a statement
+    public static final int DECREMENT_VAR = 33;  // depth, slot
+    // Comparison fused with JUMP_IF_FALSE for KUNG and loop conditions.
+    public static final int JUMP_IF_NOT_GREATER = 34;        // offset
+    public static final int JUMP_IF_NOT_GREATER_EQUAL = 35;  // offset
+    public static final int JUMP_IF_NOT_LESS = 36;           // offset
+    public static final int JUMP_IF_NOT_LESS_EQUAL = 37;     // offset
+    // SET_VAR and STORE_VAR for assignments the TypeChecker proved right:
+    // the variable's type is not looked at.
+    public static final int SET_CHECKED = 38;    // depth, slot
+    public static final int STORE_CHECKED = 39;  // depth, slot
+    public static final int MODULO = 40;
+
+    static String name(int op) {
+        return switch (op) {
+            case CONSTANT -> "CONSTANT";
+            case POP -> "POP";
+            case GET_VAR -> "GET_VAR";
+            case SET_VAR -> "SET_VAR";
+            case CHECK_VAR -> "CHECK_VAR";
+            case DEFINE -> "DEFINE";
+            case DEFINE_DEFAULT -> "DEFINE_DEFAULT";
+            case INCREMENT -> "INCREMENT";
+            case DECREMENT -> "DECREMENT";
+            case NEGATE -> "NEGATE";
+            case NOT -> "NOT";
+            case ADD -> "ADD";
+            case SUBTRACT -> "SUBTRACT";
+            case MULTIPLY -> "MULTIPLY";
+            case DIVIDE -> "DIVIDE";
+            case GREATER -> "GREATER";
+            case GREATER_EQUAL -> "GREATER_EQUAL";
+            case LESS -> "LESS";
+            case LESS_EQUAL -> "LESS_EQUAL";
+            case EQUAL -> "EQUAL";
+            case NOT_EQUAL -> "NOT_EQUAL";
+            case CONCAT -> "CONCAT";
+            case NEXT_LINE -> "NEXT_LINE";
+            case PRINT -> "PRINT";
+            case INPUT -> "INPUT";
+            case JUMP -> "JUMP";
+            case JUMP_IF_FALSE -> "JUMP_IF_FALSE";
+            case JUMP_IF_TRUE_OR_POP -> "JUMP_IF_TRUE_OR_POP";
+            case JUMP_IF_FALSE_OR_POP -> "JUMP_IF_FALSE_OR_POP";
+            case LOOP -> "LOOP";
+            case RETURN -> "RETURN";
+            case STORE_VAR -> "STORE_VAR";
+            case INCREMENT_VAR -> "INCREMENT_VAR";
+            case DECREMENT_VAR -> "DECREMENT_VAR";
+            case JUMP_IF_NOT_GREATER -> "JUMP_IF_NOT_GREATER";
+            case JUMP_IF_NOT_GREATER_EQUAL -> "JUMP_IF_NOT_GREATER_EQUAL";
+            case JUMP_IF_NOT_LESS -> "JUMP_IF_NOT_LESS";
+            case JUMP_IF_NOT_LESS_EQUAL -> "JUMP_IF_NOT_LESS_EQUAL";
+            case SET_CHECKED -> "SET_CHECKED";
+            case STORE_CHECKED -> "STORE_CHECKED";
+            case MODULO -> "MODULO";
+            default -> "UNKNOWN";
+        };
+    }
+
+    static int operandCount(int op) {
+        return switch (op) {
+            case GET_VAR, SET_VAR, CHECK_VAR, INCREMENT, DECREMENT,
+                 STORE_VAR, INCREMENT_VAR, DECREMENT_VAR, SET_CHECKED, STORE_CHECKED, LOOP -> 2;
+            case CONSTANT, DEFINE, DEFINE_DEFAULT, INPUT,
+                 JUMP, JUMP_IF_FALSE, JUMP_IF_TRUE_OR_POP, JUMP_IF_FALSE_OR_POP,
+                 JUMP_IF_NOT_GREATER, JUMP_IF_NOT_GREATER_EQUAL, JUMP_IF_NOT_LESS, JUMP_IF_NOT_LESS_EQUAL -> 1;
+            default -> 0;
+        };
+    }
+}
@@ -0,0 +1,464 @@
+package CodeGenerator;
+
+import LexicalAnalyzer.Token;
+import LexicalAnalyzer.TokenType;
+import SemanticAnalyzer.Environment;
+import SemanticAnalyzer.Text;
+import SemanticAnalyzer.Values;
+import Utils.RuntimeError;
+
+import java.util.List;
+
+// Statement nodes. run() counts a statement the way Interpreter.execute()
+// does, so step limits and metrics come out the same on both engines.
+abstract class StmtNode extends Node {
+    abstract void execute(Frame frame);
+
+    static void run(StmtNode node, Frame frame) {
+        if (node == null) return;
+        frame.steps++;
+        node.execute(frame);
+    }
+
+    // The statements of a block; also the root of the whole tree.
+    static class Sequence extends StmtNode {
+        final StmtNode[] statements;
+
+        Sequence(List<StmtNode> statements) {
+            this.statements = statements.toArray(new StmtNode[0]);
+            for (StmtNode statement : this.statements) adopt(statement);
+        }
+
+        @Override
+        void execute(Frame frame) {
+            for (StmtNode statement : statements) run(statement, frame);
+        }
+
+        @Override
+        void replaceChild(Node child, Node replacement) {
+            for (int i = 0; i < statements.length; i++) {
+                if (statements[i] == child) statements[i] = (StmtNode) replacement;
+            }
+        }
+    }
+
+    // SUGOD and PUNDOK. They share one Environment, so all a block does is
+    // count how deeply it is nested.
+    static final class Block extends Sequence {
+        Block(List<StmtNode> statements) {
+            super(statements);
+        }
+
+        @Override
+        void execute(Frame frame) {
+            if (++frame.depth > frame.maxDepth) frame.maxDepth = frame.depth;
+            try {
+                super.execute(frame);
+            } finally {
+                frame.depth--;
+            }
+        }
+    }
+
+    static final class Expression extends StmtNode {
+        ExprNode expression;
+
+        Expression(ExprNode expression) {
+            this.expression = adopt(expression);
+        }
+
+        @Override
+        void execute(Frame frame) {
+            expression.execute(frame);
+        }
+
+        @Override
+        void replaceChild(Node child, Node replacement) {
+            if (expression == child) expression = (ExprNode) replacement;
+        }
+    }
+
+    // A variable on its own line, which has to be defined.
+    static final class Check extends StmtNode {
+        final Token name;
+        final int depth;
+        final int slot;
+        ExprNode read;
+
+        Check(Token name, int depth, int slot, ExprNode read) {
+            this.name = name;
+            this.depth = depth;
+            this.slot = slot;
+            this.read = adopt(read);
+        }
+
+        @Override
+        void execute(Frame frame) {
+            if (!frame.environment.containsKey(depth, slot)) {
+                throw new RuntimeError(name, "Undefined variable: " + name.getLexeme());
+            }
+            read.execute(frame);
+        }
+
+        @Override
+        void replaceChild(Node child, Node replacement) {
+            if (read == child) read = (ExprNode) replacement;
+        }
+    }
+
+    // An assignment whose value is thrown away, before its first run. A
+    // NUMERO target makes it a NumberAssignment, anything else an
+    // AnyAssignment. delta is +1 or -1 for the x = x++ the parser builds
+    // for x++, else 0.
+    static final class Assignment extends StmtNode {
+        final ExprNode.Assign assign;
+        final boolean typed;
+        final int delta;
+
+        Assignment(ExprNode.Assign assign, boolean typed, int delta) {
+            this.assign = adopt(assign);
+            this.typed = typed;
+            this.delta = delta;
+        }
+
+        @Override
+        void execute(Frame frame) {
+            if (typed || "NUMERO".equals(frame.environment.typeOf(assign.depth, assign.slot))) {
+                replace(new NumberAssignment(assign, typed, delta)).execute(frame);
+            } else {
+                replace(new AnyAssignment(assign)).execute(frame);
+            }
+        }
+    }
+
+    // Updates a NUMERO variable in place without boxing. Unless the checker
+    // proved the value a NUMERO, a variable that turns out not to be one
+    // makes it an AnyAssignment.
+    static final class NumberAssignment extends StmtNode {
+        ExprNode.Assign assign;
+        final boolean typed;
+        final int delta;
+
+        NumberAssignment(ExprNode.Assign assign, boolean typed, int delta) {
+            this.assign = adopt(assign);
+            this.typed = typed;
+            this.delta = delta;
+        }
+
+        @Override
+        void execute(Frame frame) {
+            ExprNode.Assign assign = this.assign;
+            Environment environment = frame.environment;
+            if (!typed && !"NUMERO".equals(environment.typeOf(assign.depth, assign.slot))) {
+                generic().execute(frame);
+                return;
+            }
+            if (delta != 0) {
+                if (!environment.isNumber(assign.depth, assign.slot)) {
+                    generic().execute(frame);
+                    return;
+                }
+                environment.assignNumber(assign.name, assign.depth, assign.slot,
+                        environment.getNumber(assign.depth, assign.slot) + delta);
+                return;
+            }
+            int value;
+            try {
+                value = assign.value.executeNumber(frame);
+            } catch (ExprNode.NotANumber notANumber) {
+                assign.store(frame, notANumber.value);
+                return;
+            }
+            if (typed) {
+                environment.assignNumberTyped(assign.name, assign.depth, assign.slot, value);
+            } else {
+                environment.assignNumber(assign.name, assign.depth, assign.slot, value);
+            }
+        }
+
+        private StmtNode generic() {
+            return replace(new AnyAssignment(assign));
+        }
+
+        @Override
+        void replaceChild(Node child, Node replacement) {
+            if (assign == child) assign = (ExprNode.Assign) replacement;
+        }
+    }
+
+    static final class AnyAssignment extends StmtNode {
+        ExprNode.Assign assign;
+
+        AnyAssignment(ExprNode.Assign assign) {
+            this.assign = adopt(assign);
+        }
+
+        @Override
+        void execute(Frame frame) {
+            assign.execute(frame);
+        }
+
+        @Override
+        void replaceChild(Node child, Node replacement) {
+            if (assign == child) assign = (ExprNode.Assign) replacement;
+        }
+    }
+
+    static final class Print extends StmtNode {
+        ExprNode expression;
+
+        Print(ExprNode expression) {
+            this.expression = adopt(expression);
+        }
+
+        @Override
+        void execute(Frame frame) {
+            Object value = expression.execute(frame);
+            frame.output.println(value instanceof Text text ? text : Values.stringify(value));
+        }
+
+        @Override
+        void replaceChild(Node child, Node replacement) {
+            if (expression == child) expression = (ExprNode) replacement;
+        }
+    }
+
+    static final class Input extends StmtNode {
+        final Token[] names;
+        final int[] depths;
+        final int[] slots;
+
+        Input(Token[] names, int[] depths, int[] slots) {
+            this.names = names;
+            this.depths = depths;
+            this.slots = slots;
+        }
+
+        @Override
+        void execute(Frame frame) {
+            for (int i = 0; i < names.length; i++) {
+                Token name = names[i];
+                frame.output.print("Enter value for " + name.getLexeme() + ": ");
+                frame.output.flush();
+                String value = frame.input.nextValue(name);
+                String type = frame.environment.getType(name, depths[i], slots[i]);
+                frame.environment.assign(name, depths[i], slots[i], Values.parseInput(name, type, value));
+            }
+        }
+    }
+
+    // MUGNA. An initializer may be null, for a variable declared without a
+    // value.
+    static final class Declaration extends StmtNode {
+        final Token[] names;
+        final int[] slots;
+        final String[] types;
+        final boolean[] checked;
+        final ExprNode[] initializers;
+
+        Declaration(Token[] names, int[] slots, String[] types, boolean[] checked, ExprNode[] initializers) {
+            this.names = names;
+            this.slots = slots;
+            this.types = types;
+            this.checked = checked;
+            this.initializers = initializers;
+            for (ExprNode initializer : initializers) adopt(initializer);
+        }
+
+        @Override
+        void execute(Frame frame) {
+            for (int i = 0; i < names.length; i++) {
+                Object value = initializers[i] != null ? initializers[i].execute(frame) : null;
+                if (!checked[i] && value != null && !Values.isTypeCompatible(types[i], value)) {
+                    throw new RuntimeError(names[i], "Variable " + names[i].getLexeme() + " must be of type " + types[i] + ".");
+                }
+                frame.environment.define(slots[i], names[i].getLexeme(), value, types[i]);
+            }
+        }
+
+        @Override
+        void replaceChild(Node child, Node replacement) {
+            for (int i = 0; i < initializers.length; i++) {
+                if (initializers[i] == child) initializers[i] = (ExprNode) replacement;
+            }
+        }
+    }
+
+    // A single variable outside MUGNA, which gets its type's default value
+    // when it has no initializer.
+    static final class Define extends StmtNode {
+        final Token name;
+        final int slot;
+        final String type;
+        ExprNode initializer;
+
+        Define(Token name, int slot, String type, ExprNode initializer) {
+            this.name = name;
+            this.slot = slot;
+            this.type = type;
+            this.initializer = adopt(initializer);
+        }
+
+        @Override
+        void execute(Frame frame) {
+            Object value = initializer != null ? initializer.execute(frame) : Values.defaultValue(name, type);
+            frame.environment.define(slot, name.getLexeme(), value, type);
+        }
+
+        @Override
+        void replaceChild(Node child, Node replacement) {
+            if (initializer == child) initializer = (ExprNode) replacement;
+        }
+    }
+
+    static final class If extends StmtNode {
+        ExprNode condition;
+        StmtNode thenBranch;
+        StmtNode elseBranch;
+
+        If(ExprNode condition, StmtNode thenBranch, StmtNode elseBranch) {
+            this.condition = adopt(condition);
+            this.thenBranch = adopt(thenBranch);
+            this.elseBranch = adopt(elseBranch);
+        }
+
+        @Override
+        void execute(Frame frame) {
+            run(condition.executeCondition(frame) ? thenBranch : elseBranch, frame);
+        }
+
+        @Override
+        void replaceChild(Node child, Node replacement) {
+            if (condition == child) condition = (ExprNode) replacement;
+            if (thenBranch == child) thenBranch = (StmtNode) replacement;
+            if (elseBranch == child) elseBranch = (StmtNode) replacement;
+        }
+    }
+
+    // ALANG SA and the loops around expressions that do not change in them
+    // (see ExprNode.Invariant), which start over on every run of the loop.
+    static final class While extends StmtNode {
+        final Token keyword;
+        ExprNode condition;
+        StmtNode body;
+        final ExprNode.Invariant[] invariants;
+
+        While(Token keyword, ExprNode condition, StmtNode body, List<ExprNode.Invariant> invariants) {
+            this.keyword = keyword;
+            this.condition = adopt(condition);
+            this.body = adopt(body);
+            this.invariants = invariants.toArray(new ExprNode.Invariant[0]);
+        }
+
+        @Override
+        void execute(Frame frame) {
+            for (ExprNode.Invariant invariant : invariants) invariant.reset();
+            while (condition.executeCondition(frame)) {
+                run(body, frame);
+                frame.budget.check(frame.steps, keyword);
+            }
+        }
+
+        @Override
+        void replaceChild(Node child, Node replacement) {
+            if (condition == child) condition = (ExprNode) replacement;
+            if (body == child) body = (StmtNode) replacement;
+        }
+    }
+
+    // ALANG SA (..., i < n, i++) whose body leaves i alone and whose n does
+    // not change in the loop. While i is a NUMERO it lives in an int here:
+    // n is evaluated once, the test is an int comparison, and the increment
+    // adds the step and stores i back for the body to read. Otherwise the
+    // loop runs like a While over condition, body and increment, which are
+    // what the parser built. Steps and block depth are counted as the While
+    // and the Block around body and increment would count them.
+    static final class CountedLoop extends StmtNode {
+        final Token keyword;
+        final Token name;
+        final int depth;
+        final int slot;
+        final TokenType comparison;   // with i on the left
+        final int step;
+        ExprNode bound;
+        ExprNode condition;
+        final Sequence body;
+        StmtNode increment;
+        final ExprNode.Invariant[] invariants;
+
+        CountedLoop(Token keyword, Token name, int depth, int slot, TokenType comparison, int step,
+                    ExprNode bound, ExprNode condition, Sequence body, StmtNode increment,
+                    List<ExprNode.Invariant> invariants) {
+            this.keyword = keyword;
+            this.name = name;
+            this.depth = depth;
+            this.slot = slot;
+            this.comparison = comparison;
+            this.step = step;
+            this.bound = adopt(bound);
+            this.condition = adopt(condition);
+            this.body = adopt(body);
+            this.increment = adopt(increment);
+            this.invariants = invariants.toArray(new ExprNode.Invariant[0]);
+        }
+
+        @Override
+        void execute(Frame frame) {
+            for (ExprNode.Invariant invariant : invariants) invariant.reset();
+            frame.depth++;
+            try {
+                Environment environment = frame.environment;
+                if (!environment.isNumber(depth, slot) || !"NUMERO".equals(environment.typeOf(depth, slot))) {
+                    loop(frame);
+                    return;
+                }
+                int limit;
+                try {
+                    limit = bound.executeNumber(frame);
+                } catch (ExprNode.NotANumber notANumber) {
+                    loop(frame);
+                    return;
+                }
+                int i = environment.getNumber(depth, slot);
+                while (test(i, limit)) {
+                    frame.steps++;
+                    if (frame.depth > frame.maxDepth) frame.maxDepth = frame.depth;
+                    body.execute(frame);
+                    frame.steps++;
+                    i += step;
+                    environment.assignNumber(name, depth, slot, i);
+                    frame.budget.check(frame.steps, keyword);
+                }
+            } finally {
+                frame.depth--;
+            }
+        }
+
+        private boolean test(int i, int limit) {
+            return switch (comparison) {
+                case LESS_THAN -> i < limit;
+                case LESS_EQUAL -> i <= limit;
+                case GREATER_THAN -> i > limit;
+                case GREATER_EQUAL -> i >= limit;
+                default -> i != limit;
+            };
+        }
+
+        private void loop(Frame frame) {
+            while (condition.executeCondition(frame)) {
+                frame.steps++;
+                if (frame.depth > frame.maxDepth) frame.maxDepth = frame.depth;
+                body.execute(frame);
+                run(increment, frame);
+                frame.budget.check(frame.steps, keyword);
+            }
+        }
+
+        @Override
+        void replaceChild(Node child, Node replacement) {
+            if (bound == child) bound = (ExprNode) replacement;
+            if (condition == child) condition = (ExprNode) replacement;
+            if (increment == child) increment = (StmtNode) replacement;
+        }
+    }
+}
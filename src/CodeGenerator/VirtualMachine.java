@@ -0,0 +1,345 @@
+package CodeGenerator;
+
+import LexicalAnalyzer.Token;
+import SemanticAnalyzer.Environment;
+import SemanticAnalyzer.Text;
+import SemanticAnalyzer.Values;
+import SyntaxAnalyzer.Stmt;
+import Utils.Budget;
+import Utils.Diagnostics;
+import Utils.Input;
+import Utils.Limits;
+import Utils.Output;
+import Utils.RuntimeError;
+
+import java.util.List;
+
+// Stack-based alternative to the tree-walking Interpreter. Runs a Chunk in a
+// single dispatch loop and shares Environment and Values with the
+// Interpreter, so both engines produce the same output and errors.
+public class VirtualMachine {
+    private final Environment environment = new Environment();
+    private final Output output;
+    private final Input input;
+    private final Diagnostics diagnostics;
+    private final Limits limits;
+
+    public VirtualMachine() {
+        this(Output.standard());
+    }
+
+    public VirtualMachine(Output output) {
+        this(output, Input.standard(), Diagnostics.printing());
+    }
+
+    public VirtualMachine(Output output, Input input, Diagnostics diagnostics) {
+        this(output, input, diagnostics, Limits.NONE);
+    }
+
+    public VirtualMachine(Output output, Input input, Diagnostics diagnostics, Limits limits) {
+        this.output = output;
+        this.input = input;
+        this.diagnostics = diagnostics;
+        this.limits = limits;
+    }
+
+    public void interpret(Chunk chunk) {
+        try {
+            run(chunk, limits.start());
+        } catch (RuntimeError error) {
+            output.flush();
+            diagnostics.runtimeError(error);
+        } finally {
+            output.flush();
+        }
+    }
+
+    // A stack slot holding NUMBER keeps its NUMERO value unboxed in the
+    // parallel numbers[] array. NUMERO variables are read and written through
+    // the Environment's primitive slots, and values are only boxed when they
+    // leave that path (printed, concatenated, compared for equality), so a
+    // counting loop does not allocate. TIPIK values stay boxed Floats.
+    private static final Object NUMBER = new Object();
+
+    private void run(Chunk chunk, Budget budget) {
+        final int[] code = chunk.code;
+        final Token[] tokens = chunk.tokens;
+        final Object[] constants = chunk.constantPool;
+        final Object[] stack = new Object[chunk.maxStack + 1];
+        final int[] numbers = new int[chunk.maxStack + 1];
+        int sp = 0;
+        int ip = 0;
+        long steps = 0;
+
+        for (;;) {
+            int at = ip;
+            switch (code[ip++]) {
+                case OpCode.CONSTANT -> push(stack, numbers, sp++, constants[code[ip++]]);
+                case OpCode.POP -> sp--;
+                case OpCode.GET_VAR -> {
+                    int depth = code[ip++];
+                    int slot = code[ip++];
+                    if (environment.isNumber(depth, slot)) {
+                        stack[sp] = NUMBER;
+                        numbers[sp++] = environment.getNumber(depth, slot);
+                    } else {
+                        push(stack, numbers, sp++, environment.get(tokens[at], depth, slot));
+                    }
+                }
+                case OpCode.SET_VAR -> {
+                    store(tokens[at], code[ip], code[ip + 1], box(stack, numbers, sp - 1));
+                    ip += 2;
+                }
+                case OpCode.STORE_VAR -> {
+                    int depth = code[ip++];
+                    int slot = code[ip++];
+                    sp--;
+                    if (stack[sp] == NUMBER && "NUMERO".equals(environment.typeOf(depth, slot))) {
+                        environment.assignNumber(tokens[at], depth, slot, numbers[sp]);
+                    } else {
+                        store(tokens[at], depth, slot, box(stack, numbers, sp));
+                    }
+                }
+                // A NUMBER on the stack means a NUMERO value, so a NUMERO
+                // variable: the TypeChecker matched the two.
+                case OpCode.SET_CHECKED -> {
+                    if (stack[sp - 1] == NUMBER) {
+                        environment.assignNumberTyped(tokens[at], code[ip], code[ip + 1], numbers[sp - 1]);
+                    } else {
+                        environment.assignTyped(tokens[at], code[ip], code[ip + 1], stack[sp - 1]);
+                    }
+                    ip += 2;
+                }
+                case OpCode.STORE_CHECKED -> {
+                    int depth = code[ip++];
+                    int slot = code[ip++];
+                    sp--;
+                    if (stack[sp] == NUMBER) {
+                        environment.assignNumberTyped(tokens[at], depth, slot, numbers[sp]);
+                    } else {
+                        environment.assignTyped(tokens[at], depth, slot, stack[sp]);
+                    }
+                }
+                case OpCode.CHECK_VAR -> {
+                    if (!environment.containsKey(code[ip], code[ip + 1])) {
+                        Token name = tokens[at];
+                        throw new RuntimeError(name, "Undefined variable: " + name.getLexeme());
+                    }
+                    ip += 2;
+                }
+                case OpCode.DEFINE -> {
+                    Stmt.Var var = (Stmt.Var) constants[code[ip++]];
+                    sp--;
+                    Object value = box(stack, numbers, sp);
+                    if (!var.checked && value != null && !Values.isTypeCompatible(var.getType(), value)) {
+                        throw new RuntimeError(var.name, "Variable " + var.name.getLexeme() + " must be of type " + var.getType() + ".");
+                    }
+                    environment.define(var.slot, var.name.getLexeme(), value, var.getType());
+                }
+                case OpCode.DEFINE_DEFAULT -> {
+                    Stmt.Var var = (Stmt.Var) constants[code[ip++]];
+                    environment.define(var.slot, var.name.getLexeme(), Values.defaultValue(var.name, var.getType()), var.getType());
+                }
+                case OpCode.INCREMENT, OpCode.DECREMENT -> {
+                    int result = step(tokens[at], code[ip], code[ip + 1], code[at] == OpCode.INCREMENT ? 1 : -1);
+                    environment.assign(tokens[at], code[ip], code[ip + 1], result);
+                    stack[sp] = NUMBER;
+                    numbers[sp++] = result;
+                    ip += 2;
+                }
+                case OpCode.INCREMENT_VAR, OpCode.DECREMENT_VAR -> {
+                    int depth = code[ip++];
+                    int slot = code[ip++];
+                    int delta = code[at] == OpCode.INCREMENT_VAR ? 1 : -1;
+                    if (environment.isNumber(depth, slot) && "NUMERO".equals(environment.typeOf(depth, slot))) {
+                        environment.assignNumber(tokens[at], depth, slot, environment.getNumber(depth, slot) + delta);
+                    } else {
+                        store(tokens[at], depth, slot, step(tokens[at], depth, slot, delta));
+                    }
+                }
+                case OpCode.NEGATE -> {
+                    if (stack[sp - 1] == NUMBER) {
+                        numbers[sp - 1] = -numbers[sp - 1];
+                    } else {
+                        push(stack, numbers, sp - 1, Values.negate(tokens[at], stack[sp - 1]));
+                    }
+                }
+                case OpCode.NOT -> stack[sp - 1] = !Values.isTruthy(stack[sp - 1]);
+                case OpCode.ADD -> {
+                    sp--;
+                    if (bothNumbers(stack, sp)) numbers[sp - 1] = numbers[sp - 1] + numbers[sp];
+                    else arithmetic(tokens[at], stack, numbers, sp);
+                }
+                case OpCode.SUBTRACT -> {
+                    sp--;
+                    if (bothNumbers(stack, sp)) numbers[sp - 1] = numbers[sp - 1] - numbers[sp];
+                    else arithmetic(tokens[at], stack, numbers, sp);
+                }
+                case OpCode.MULTIPLY -> {
+                    sp--;
+                    if (bothNumbers(stack, sp)) numbers[sp - 1] = numbers[sp - 1] * numbers[sp];
+                    else arithmetic(tokens[at], stack, numbers, sp);
+                }
+                case OpCode.DIVIDE -> {
+                    sp--;
+                    if (bothNumbers(stack, sp)) numbers[sp - 1] = Values.divide(tokens[at], numbers[sp - 1], numbers[sp]);
+                    else arithmetic(tokens[at], stack, numbers, sp);
+                }
+                case OpCode.MODULO -> {
+                    sp--;
+                    if (bothNumbers(stack, sp)) numbers[sp - 1] = Values.remainder(tokens[at], numbers[sp - 1], numbers[sp]);
+                    else arithmetic(tokens[at], stack, numbers, sp);
+                }
+                case OpCode.GREATER -> {
+                    sp--;
+                    stack[sp - 1] = bothNumbers(stack, sp) ? numbers[sp - 1] > numbers[sp] : compare(tokens[at], stack, numbers, sp);
+                }
+                case OpCode.GREATER_EQUAL -> {
+                    sp--;
+                    stack[sp - 1] = bothNumbers(stack, sp) ? numbers[sp - 1] >= numbers[sp] : compare(tokens[at], stack, numbers, sp);
+                }
+                case OpCode.LESS -> {
+                    sp--;
+                    stack[sp - 1] = bothNumbers(stack, sp) ? numbers[sp - 1] < numbers[sp] : compare(tokens[at], stack, numbers, sp);
+                }
+                case OpCode.LESS_EQUAL -> {
+                    sp--;
+                    stack[sp - 1] = bothNumbers(stack, sp) ? numbers[sp - 1] <= numbers[sp] : compare(tokens[at], stack, numbers, sp);
+                }
+                case OpCode.EQUAL -> {
+                    sp--;
+                    stack[sp - 1] = Values.isEqual(box(stack, numbers, sp - 1), box(stack, numbers, sp));
+                }
+                case OpCode.NOT_EQUAL -> {
+                    sp--;
+                    stack[sp - 1] = !Values.isEqual(box(stack, numbers, sp - 1), box(stack, numbers, sp));
+                }
+                case OpCode.CONCAT -> {
+                    sp--;
+                    stack[sp - 1] = Text.concat(box(stack, numbers, sp - 1), box(stack, numbers, sp), false);
+                }
+                case OpCode.NEXT_LINE -> {
+                    sp--;
+                    stack[sp - 1] = Text.concat(box(stack, numbers, sp - 1), box(stack, numbers, sp), true);
+                }
+                case OpCode.PRINT -> {
+                    sp--;
+                    Object value = box(stack, numbers, sp);
+                    output.println(value instanceof Text text ? text : Values.stringify(value));
+                }
+                case OpCode.INPUT -> readInput((Stmt.Input) constants[code[ip++]]);
+                case OpCode.JUMP -> {
+                    int offset = code[ip++];
+                    ip += offset;
+                }
+                case OpCode.JUMP_IF_FALSE -> {
+                    int offset = code[ip++];
+                    if (!Values.isTruthy(stack[--sp])) ip += offset;
+                }
+                case OpCode.JUMP_IF_NOT_GREATER -> {
+                    int offset = code[ip++];
+                    sp -= 2;
+                    if (!(bothNumbers(stack, sp + 1) ? numbers[sp] > numbers[sp + 1] : compare(tokens[at], stack, numbers, sp + 1))) ip += offset;
+                }
+                case OpCode.JUMP_IF_NOT_GREATER_EQUAL -> {
+                    int offset = code[ip++];
+                    sp -= 2;
+                    if (!(bothNumbers(stack, sp + 1) ? numbers[sp] >= numbers[sp + 1] : compare(tokens[at], stack, numbers, sp + 1))) ip += offset;
+                }
+                case OpCode.JUMP_IF_NOT_LESS -> {
+                    int offset = code[ip++];
+                    sp -= 2;
+                    if (!(bothNumbers(stack, sp + 1) ? numbers[sp] < numbers[sp + 1] : compare(tokens[at], stack, numbers, sp + 1))) ip += offset;
+                }
+                case OpCode.JUMP_IF_NOT_LESS_EQUAL -> {
+                    int offset = code[ip++];
+                    sp -= 2;
+                    if (!(bothNumbers(stack, sp + 1) ? numbers[sp] <= numbers[sp + 1] : compare(tokens[at], stack, numbers, sp + 1))) ip += offset;
+                }
+                case OpCode.JUMP_IF_TRUE_OR_POP -> {
+                    int offset = code[ip++];
+                    if (Values.isTruthy(stack[sp - 1])) ip += offset;
+                    else sp--;
+                }
+                case OpCode.JUMP_IF_FALSE_OR_POP -> {
+                    int offset = code[ip++];
+                    if (!Values.isTruthy(stack[sp - 1])) ip += offset;
+                    else sp--;
+                }
+                case OpCode.LOOP -> {
+                    // Each pass is charged the statements of the loop body,
+                    // counted by the Compiler, rather than counting every
+                    // instruction dispatched.
+                    int offset = code[ip++];
+                    steps += code[ip++];
+                    budget.check(steps, tokens[at]);
+                    ip -= offset;
+                }
+                case OpCode.RETURN -> {
+                    return;
+                }
+                default -> throw new IllegalStateException("Unknown opcode " + code[at] + " at " + at);
+            }
+        }
+    }
+
+    private static void push(Object[] stack, int[] numbers, int index, Object value) {
+        if (value instanceof Integer i) {
+            stack[index] = NUMBER;
+            numbers[index] = i;
+        } else {
+            stack[index] = value;
+        }
+    }
+
+    private static Object box(Object[] stack, int[] numbers, int index) {
+        return stack[index] == NUMBER ? (Object) numbers[index] : stack[index];
+    }
+
+    private static boolean bothNumbers(Object[] stack, int right) {
+        return stack[right - 1] == NUMBER && stack[right] == NUMBER;
+    }
+
+    // The operators on anything but two NUMERO: TIPIK arithmetic, or the
+    // error the Interpreter reports.
+    private static void arithmetic(Token operator, Object[] stack, int[] numbers, int right) {
+        push(stack, numbers, right - 1, Values.arithmetic(operator, box(stack, numbers, right - 1), box(stack, numbers, right)));
+    }
+
+    private static boolean compare(Token operator, Object[] stack, int[] numbers, int right) {
+        return Values.compare(operator, box(stack, numbers, right - 1), box(stack, numbers, right));
+    }
+
+    private void store(Token name, int depth, int slot, Object value) {
+        String type = environment.getType(name, depth, slot);
+        if (value != null && !Values.isTypeCompatible(type, value)) {
+            throw new RuntimeError(name, "Expected " + type + " for assignment.");
+        }
+        environment.assign(name, depth, slot, value);
+    }
+
+    private int step(Token name, int depth, int slot, int delta) {
+        if (environment.isNumber(depth, slot)) {
+            return environment.getNumber(depth, slot) + delta;
+        }
+        Object value = environment.get(name, depth, slot);
+        if (value instanceof Integer num) {
+            return num + delta;
+        }
+        throw new RuntimeError(name, "Only numbers can be incremented or decremented.");
+    }
+
+    private void readInput(Stmt.Input inputStmt) {
+        List<Token> varNames = inputStmt.getVariableNames();
+        for (int i = 0; i < varNames.size(); i++) {
+            Token varName = varNames.get(i);
+            int depth = inputStmt.depths[i];
+            int slot = inputStmt.slots[i];
+            output.print("Enter value for " + varName.getLexeme() + ": ");
+            output.flush();
+            String inputValue = input.nextValue(varName);
+            String type = environment.getType(varName, depth, slot);
+            environment.assign(varName, depth, slot, Values.parseInput(varName, type, inputValue));
+        }
+    }
+}
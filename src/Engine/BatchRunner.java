@@ -0,0 +1,358 @@
+package Engine;
+
+import Utils.Diagnostics;
+import Utils.Input;
+import Utils.Output;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+// Runs many scripts in one JVM, each on its own virtual thread with its own
+// engine run, captured output and DAWAT input. Jobs come from a directory
+// (every file in it, with `<file>.in` as that file's input) or a manifest
+// listing `program[<TAB>input]` per line.
+//
+// Virtual threads are never preempted, so a timeout interrupts the thread
+// and both engines check for that at every loop back-edge.
+public final class BatchRunner {
+    public static final int DEFAULT_MAX_OUTPUT_BYTES = 1024 * 1024;
+
+    public enum Status {
+        OK("ok"),
+        SYNTAX_ERROR("syntax-error"),
+        RUNTIME_ERROR("runtime-error"),
+        CRASH("crash"),
+        TIMEOUT("timeout");
+
+        private final String label;
+
+        Status(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    public static final class Job {
+        private final Path program;
+        private final Path input;
+        private final String name;
+
+        // input may be null for a program that reads nothing.
+        public Job(Path program, Path input, String name) {
+            this.program = program;
+            this.input = input;
+            this.name = name;
+        }
+
+        public Path program() {
+            return program;
+        }
+
+        public Path input() {
+            return input;
+        }
+
+        public String name() {
+            return name;
+        }
+    }
+
+    public static final class Result {
+        private final Job job;
+        private final Status status;
+        private final long nanos;
+        private final long outputBytes;
+        private final String firstError;
+
+        Result(Job job, Status status, long nanos, long outputBytes, String firstError) {
+            this.job = job;
+            this.status = status;
+            this.nanos = nanos;
+            this.outputBytes = outputBytes;
+            this.firstError = firstError;
+        }
+
+        public Job job() {
+            return job;
+        }
+
+        public Status status() {
+            return status;
+        }
+
+        public long nanos() {
+            return nanos;
+        }
+
+        public long outputBytes() {
+            return outputBytes;
+        }
+
+        // Null when the program ran cleanly.
+        public String firstError() {
+            return firstError;
+        }
+    }
+
+    private static final int RUNNING = 0;
+    private static final int FINISHED = 1;
+    private static final int TIMED_OUT = 2;
+
+    private final BisayaEngine engine;
+    private final int parallelism;
+    private final long timeoutMillis;
+    private final int maxOutputBytes;
+    private final Path outputDirectory;
+    private final int maxErrors;
+
+    public BatchRunner(BisayaEngine engine, int parallelism, long timeoutMillis, int maxOutputBytes, Path outputDirectory) {
+        this(engine, parallelism, timeoutMillis, maxOutputBytes, outputDirectory, Diagnostics.UNLIMITED);
+    }
+
+    // outputDirectory, when not null, receives `<name>.out` and `<name>.err`
+    // for every program. maxErrors caps the syntax errors kept per program.
+    // A timeoutMillis of 0 lets every program run as long as it takes.
+    public BatchRunner(BisayaEngine engine, int parallelism, long timeoutMillis, int maxOutputBytes, Path outputDirectory,
+                       int maxErrors) {
+        if (parallelism < 1) throw new IllegalArgumentException("parallelism must be at least 1");
+        if (maxErrors < 0) throw new IllegalArgumentException("maxErrors must not be negative");
+        if (timeoutMillis < 0) throw new IllegalArgumentException("timeoutMillis must not be negative");
+        this.engine = engine;
+        this.parallelism = parallelism;
+        this.timeoutMillis = timeoutMillis;
+        this.maxOutputBytes = maxOutputBytes;
+        this.outputDirectory = outputDirectory;
+        this.maxErrors = maxErrors;
+    }
+
+    // A directory or a manifest file.
+    public static List<Job> jobs(Path path) throws IOException {
+        return Files.isDirectory(path) ? directoryJobs(path) : manifestJobs(path);
+    }
+
+    private static List<Job> directoryJobs(Path directory) throws IOException {
+        List<Path> programs;
+        try (Stream<Path> files = Files.list(directory)) {
+            programs = files.filter(Files::isRegularFile)
+                    .filter(file -> !file.getFileName().toString().endsWith(".in"))
+                    .sorted()
+                    .toList();
+        }
+        List<Job> jobs = new ArrayList<>(programs.size());
+        for (Path program : programs) {
+            Path input = program.resolveSibling(program.getFileName() + ".in");
+            jobs.add(new Job(program, Files.isRegularFile(input) ? input : null, program.getFileName().toString()));
+        }
+        return jobs;
+    }
+
+    // Paths are relative to the manifest. Blank lines and `--` comments are skipped.
+    private static List<Job> manifestJobs(Path manifest) throws IOException {
+        Path base = manifest.toAbsolutePath().getParent();
+        List<Job> jobs = new ArrayList<>();
+        for (String line : Files.readAllLines(manifest)) {
+            String entry = line.strip();
+            if (entry.isEmpty() || entry.startsWith("--")) continue;
+            String[] fields = entry.split("\t");
+            String program = fields[0].strip();
+            Path input = fields.length > 1 && !fields[1].isBlank() ? base.resolve(fields[1].strip()) : null;
+            jobs.add(new Job(base.resolve(program), input, program));
+        }
+        return jobs;
+    }
+
+    // Results come back in the order of jobs.
+    public List<Result> run(List<Job> jobs) throws InterruptedException {
+        Result[] results = new Result[jobs.size()];
+        Semaphore permits = new Semaphore(parallelism);
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "bisaya-batch-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < results.length; i++) {
+                int index = i;
+                // Acquiring here rather than in the task keeps at most
+                // `parallelism` threads alive, however long the list is.
+                permits.acquire();
+                executor.execute(() -> {
+                    try {
+                        results[index] = runOne(jobs.get(index), timer);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        } finally {
+            timer.shutdownNow();
+        }
+        return Arrays.asList(results);
+    }
+
+    private Result runOne(Job job, ScheduledThreadPoolExecutor timer) {
+        long start = System.nanoTime();
+        CappedChannel captured = new CappedChannel(maxOutputBytes);
+        Diagnostics diagnostics = new Diagnostics(message -> {
+        }, maxErrors);
+        Status status;
+        String crash = null;
+
+        AtomicInteger state = new AtomicInteger(RUNNING);
+        Thread worker = Thread.currentThread();
+        ScheduledFuture<?> deadline = timeoutMillis == 0 ? null : timer.schedule(() -> {
+            if (state.compareAndSet(RUNNING, TIMED_OUT)) worker.interrupt();
+        }, timeoutMillis, TimeUnit.MILLISECONDS);
+        try {
+            String source = new String(Files.readAllBytes(job.program()), Charset.defaultCharset());
+            String input = job.input() == null ? "" : Files.readString(job.input(), Charset.defaultCharset());
+            Program program = engine.compile(source, diagnostics);
+            if (program.hasErrors()) {
+                status = Status.SYNTAX_ERROR;
+            } else {
+                Output output = new Output(captured, StandardCharsets.UTF_8, Output.DEFAULT_CAPACITY);
+                engine.execute(program, output, Input.of(input), diagnostics);
+                status = diagnostics.hadRuntimeError() ? Status.RUNTIME_ERROR : Status.OK;
+            }
+        } catch (Exception | StackOverflowError e) {
+            status = Status.CRASH;
+            crash = e.toString();
+        } finally {
+            if (deadline != null) deadline.cancel(false);
+        }
+        if (!state.compareAndSet(RUNNING, FINISHED)) status = Status.TIMEOUT;
+        long nanos = System.nanoTime() - start;
+
+        String firstError = switch (status) {
+            case OK -> null;
+            case TIMEOUT -> "Timed out after " + timeoutMillis + " ms";
+            case CRASH -> crash;
+            default -> diagnostics.messages().isEmpty() ? null : diagnostics.messages().get(0);
+        };
+        if (outputDirectory != null) {
+            try {
+                save(job, captured, diagnostics.messages(), crash);
+            } catch (IOException e) {
+                if (firstError == null) firstError = "Could not save output: " + e;
+            }
+        }
+        return new Result(job, status, nanos, captured.total(), firstError);
+    }
+
+    private void save(Job job, CappedChannel captured, List<String> errors, String crash) throws IOException {
+        Path out = outputDirectory.resolve(job.name() + ".out");
+        Files.createDirectories(out.getParent());
+        captured.writeTo(out);
+        List<String> lines = new ArrayList<>(errors);
+        if (crash != null) lines.add(crash);
+        Files.write(outputDirectory.resolve(job.name() + ".err"), lines, StandardCharsets.UTF_8);
+    }
+
+    public static void printSummary(List<Result> results, long wallNanos, PrintWriter out) {
+        Map<Status, Integer> counts = new EnumMap<>(Status.class);
+        long[] nanos = new long[results.size()];
+        for (int i = 0; i < nanos.length; i++) {
+            Result result = results.get(i);
+            counts.merge(result.status(), 1, Integer::sum);
+            nanos[i] = result.nanos();
+
+            out.printf("%-13s %9.1f ms  %s", result.status(), millis(result.nanos()), result.job().name());
+            if (result.firstError() != null) out.print("  " + result.firstError().replace('\n', ' '));
+            out.println();
+        }
+        Arrays.sort(nanos);
+
+        out.println("_____________________");
+        StringBuilder totals = new StringBuilder();
+        for (Status status : Status.values()) {
+            if (totals.length() > 0) totals.append(", ");
+            totals.append(counts.getOrDefault(status, 0)).append(' ').append(status);
+        }
+        out.println(results.size() + " programs: " + totals);
+        double seconds = wallNanos / 1e9;
+        out.printf("wall %.2f s, %.1f programs/sec%n", seconds, seconds > 0 ? results.size() / seconds : 0.0);
+        if (nanos.length > 0) {
+            out.printf("p50 %.1f ms, p95 %.1f ms, max %.1f ms%n",
+                    millis(percentile(nanos, 0.50)), millis(percentile(nanos, 0.95)), millis(nanos[nanos.length - 1]));
+        }
+        out.flush();
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        int rank = (int) Math.ceil(fraction * sorted.length);
+        return sorted[Math.max(rank - 1, 0)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    // Keeps the first `limit` bytes a program prints and counts the rest, so
+    // one noisy script can't hold the whole batch's memory. It is not an
+    // interruptible channel: the timeout interrupt must not close it.
+    private static final class CappedChannel implements WritableByteChannel {
+        private final ByteArrayOutputStream kept = new ByteArrayOutputStream();
+        private final int limit;
+        private long total = 0;
+
+        CappedChannel(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public int write(ByteBuffer source) {
+            int length = source.remaining();
+            int room = Math.min(length, Math.max(0, limit - kept.size()));
+            if (room > 0) {
+                byte[] bytes = new byte[room];
+                source.get(bytes);
+                kept.write(bytes, 0, room);
+            }
+            source.position(source.limit());
+            total += length;
+            return length;
+        }
+
+        long total() {
+            return total;
+        }
+
+        void writeTo(Path path) throws IOException {
+            Files.write(path, kept.toByteArray());
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
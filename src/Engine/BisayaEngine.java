@@ -0,0 +1,184 @@
+package Engine;
+
+import CodeGenerator.Chunk;
+import CodeGenerator.Compiler;
+import CodeGenerator.NodeInterpreter;
+import CodeGenerator.VirtualMachine;
+import LexicalAnalyzer.Lexer;
+import LexicalAnalyzer.TokenStream;
+import SemanticAnalyzer.Interpreter;
+import SemanticAnalyzer.Profiler;
+import SemanticAnalyzer.Resolver;
+import SemanticAnalyzer.TypeChecker;
+import SyntaxAnalyzer.Optimizer;
+import SyntaxAnalyzer.Parser;
+import SyntaxAnalyzer.Stmt;
+import Utils.Diagnostics;
+import Utils.Input;
+import Utils.Limits;
+import Utils.Output;
+import Utils.RuntimeError;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+// Entry point for running Bisaya++ from other Java code. compile() turns
+// source into an immutable Program; execute() runs it with its own
+// Environment, output, input and diagnostics. The engine holds no mutable
+// state, so one instance can compile and run scripts on many threads at
+// once:
+//
+//     BisayaEngine engine = new BisayaEngine();
+//     RunResult result = engine.run(source, "5\n");
+//     result.output();
+public final class BisayaEngine {
+    // What runs a compiled program: the tree-walking Interpreter, the
+    // bytecode VirtualMachine, or the self-specializing NodeInterpreter.
+    public enum Backend {
+        INTERPRETER,
+        VM,
+        NODES
+    }
+
+    private final Backend backend;
+    private final Limits limits;
+    private final Metrics metrics;
+
+    public BisayaEngine() {
+        this(false);
+    }
+
+    // useVm runs programs on the bytecode VM instead of the tree walker.
+    public BisayaEngine(boolean useVm) {
+        this(useVm, Limits.NONE);
+    }
+
+    // Every run of this engine is stopped with a LimitExceeded runtime error
+    // once it goes past limits, so one engine can serve untrusted scripts.
+    public BisayaEngine(boolean useVm, Limits limits) {
+        this(useVm, limits, Metrics.NONE);
+    }
+
+    // metrics hears about every script this engine compiles and runs.
+    public BisayaEngine(boolean useVm, Limits limits, Metrics metrics) {
+        this(useVm ? Backend.VM : Backend.INTERPRETER, limits, metrics);
+    }
+
+    public BisayaEngine(Backend backend, Limits limits, Metrics metrics) {
+        this.backend = backend;
+        this.limits = limits;
+        this.metrics = metrics;
+    }
+
+    public Program compile(String source) {
+        return compile(source, new Diagnostics());
+    }
+
+    public Program compile(String source, Diagnostics diagnostics) {
+        if (metrics == Metrics.NONE) {
+            return compile(new Parser(new Lexer(source, diagnostics), diagnostics).parse(), diagnostics);
+        }
+        // Lexing up front, rather than as the parser pulls tokens, is what
+        // lets the two be timed separately.
+        long start = System.nanoTime();
+        TokenStream tokens = TokenStream.scan(source, diagnostics);
+        metrics.lexed(System.nanoTime() - start, tokens.size());
+        return parse(new Parser(tokens, diagnostics), diagnostics);
+    }
+
+    public Program compile(Reader source, Diagnostics diagnostics) {
+        return parse(new Parser(new Lexer(source, diagnostics), diagnostics), diagnostics);
+    }
+
+    private Program parse(Parser parser, Diagnostics diagnostics) {
+        long start = System.nanoTime();
+        List<Stmt> parsed = parser.parse();
+        metrics.parsed(System.nanoTime() - start, parsed.size(), diagnostics.hadError());
+        return compile(parsed, diagnostics);
+    }
+
+    // Finishes a tree that was already parsed (or loaded from AstCache).
+    public Program compile(List<Stmt> parsed, Diagnostics diagnostics) {
+        if (diagnostics.hadError()) return new Program(parsed, List.of(), null, diagnostics);
+
+        List<Stmt> statements = new Optimizer().optimize(parsed);
+        new Resolver().resolve(statements);
+        new TypeChecker(diagnostics).check(statements);
+        if (diagnostics.hadError()) return new Program(parsed, List.of(), null, diagnostics);
+        Chunk chunk = backend == Backend.VM ? new Compiler().compile(statements) : null;
+        return new Program(parsed, statements, chunk, diagnostics);
+    }
+
+    // Runs a program that compiled without errors. Runtime errors go to
+    // diagnostics; output is flushed before this returns.
+    public void execute(Program program, Output output, Input input, Diagnostics diagnostics) {
+        if (program.hasErrors()) {
+            throw new IllegalArgumentException("Program has syntax errors");
+        }
+        if (metrics == Metrics.NONE) {
+            switch (backend) {
+                case VM -> new VirtualMachine(output, input, diagnostics, limits).interpret(program.chunk());
+                case NODES -> new NodeInterpreter(output, input, diagnostics, limits).interpret(program.statements());
+                default -> new Interpreter(output, input, diagnostics, limits).interpret(program.statements());
+            }
+            return;
+        }
+
+        RuntimeError previous = diagnostics.lastRuntimeError();
+        long written = output.bytesWritten();
+        long start = System.nanoTime();
+        long statements = 0;
+        int depth = 0;
+        if (backend == Backend.VM) {
+            new VirtualMachine(output, input, diagnostics, limits).interpret(program.chunk());
+        } else if (backend == Backend.NODES) {
+            NodeInterpreter interpreter = new NodeInterpreter(output, input, diagnostics, limits);
+            interpreter.interpret(program.statements());
+            statements = interpreter.statementsExecuted();
+            depth = interpreter.maxBlockDepth();
+        } else {
+            Interpreter interpreter = new Interpreter(output, input, diagnostics, limits);
+            interpreter.interpret(program.statements());
+            statements = interpreter.statementsExecuted();
+            depth = interpreter.maxBlockDepth();
+        }
+        metrics.executed(System.nanoTime() - start, statements, depth, output.bytesWritten() - written);
+        RuntimeError error = diagnostics.lastRuntimeError();
+        if (error != null && error != previous) metrics.runtimeError(error.getMessage());
+    }
+
+    // Runs a program on the tree-walking Interpreter, whatever the backend,
+    // recording every statement in profiler.
+    public void profile(Program program, Output output, Input input, Diagnostics diagnostics, Profiler profiler) {
+        if (program.hasErrors()) {
+            throw new IllegalArgumentException("Program has syntax errors");
+        }
+        Interpreter interpreter = new Interpreter(output, input, diagnostics, limits);
+        interpreter.setProfiler(profiler);
+        interpreter.interpret(program.statements());
+    }
+
+    // Compiles and runs source with the given DAWAT input, capturing what it prints.
+    public RunResult run(String source, String input) {
+        Diagnostics diagnostics = new Diagnostics();
+        Program program = compile(source, diagnostics);
+        return run(program, input, diagnostics);
+    }
+
+    public RunResult run(Program program, String input) {
+        return run(program, input, new Diagnostics());
+    }
+
+    private RunResult run(Program program, String input, Diagnostics diagnostics) {
+        if (program.hasErrors()) {
+            return new RunResult("", program.errors(), true, false);
+        }
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        Output output = new Output(Channels.newChannel(captured), StandardCharsets.UTF_8, Output.DEFAULT_CAPACITY);
+        execute(program, output, Input.of(input), diagnostics);
+        return new RunResult(captured.toString(StandardCharsets.UTF_8), diagnostics.messages(), false, diagnostics.hadRuntimeError());
+    }
+}
@@ -0,0 +1,25 @@
+package Engine;
+
+// Receives what a BisayaEngine sees while it compiles and runs scripts.
+// Calls come from whichever thread ran the script, so an implementation
+// has to be thread-safe. RuntimeMetrics is the built-in one; pass another
+// to feed an existing metrics library.
+public interface Metrics {
+    Metrics NONE = new Metrics() {
+    };
+
+    // Lexing is only timed apart from parsing for source given as a String;
+    // a streamed Reader is lexed while it is parsed and reported as parsing.
+    default void lexed(long nanos, int tokens) {
+    }
+
+    default void parsed(long nanos, int statements, boolean hadError) {
+    }
+
+    // statements and maxDepth are 0 on the VM, which does not count them.
+    default void executed(long nanos, long statements, int maxDepth, long outputBytes) {
+    }
+
+    default void runtimeError(String message) {
+    }
+}
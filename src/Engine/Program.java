@@ -0,0 +1,46 @@
+package Engine;
+
+import CodeGenerator.Chunk;
+import SyntaxAnalyzer.Stmt;
+import Utils.Diagnostics;
+
+import java.util.List;
+
+// A compiled script: the parsed tree, the optimized and resolved tree the
+// engines run, and the bytecode when the engine uses the VM. Nothing here
+// changes after compile(), so one Program can be executed by any number of
+// threads at once.
+public final class Program {
+    private final List<Stmt> parsed;
+    private final List<Stmt> statements;
+    private final Chunk chunk;
+    private final Diagnostics diagnostics;
+
+    Program(List<Stmt> parsed, List<Stmt> statements, Chunk chunk, Diagnostics diagnostics) {
+        this.parsed = parsed;
+        this.statements = statements;
+        this.chunk = chunk;
+        this.diagnostics = diagnostics;
+    }
+
+    public boolean hasErrors() {
+        return diagnostics.hadError();
+    }
+
+    // Syntax errors, in the order they were reported.
+    public List<String> errors() {
+        return diagnostics.messages();
+    }
+
+    public List<Stmt> parsed() {
+        return parsed;
+    }
+
+    public List<Stmt> statements() {
+        return statements;
+    }
+
+    Chunk chunk() {
+        return chunk;
+    }
+}
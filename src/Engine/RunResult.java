@@ -0,0 +1,39 @@
+package Engine;
+
+import java.util.List;
+
+// Outcome of BisayaEngine.run: what the script printed and the errors it
+// reported, syntax or runtime.
+public final class RunResult {
+    private final String output;
+    private final List<String> errors;
+    private final boolean hadError;
+    private final boolean hadRuntimeError;
+
+    RunResult(String output, List<String> errors, boolean hadError, boolean hadRuntimeError) {
+        this.output = output;
+        this.errors = List.copyOf(errors);
+        this.hadError = hadError;
+        this.hadRuntimeError = hadRuntimeError;
+    }
+
+    public String output() {
+        return output;
+    }
+
+    public List<String> errors() {
+        return errors;
+    }
+
+    public boolean hadError() {
+        return hadError;
+    }
+
+    public boolean hadRuntimeError() {
+        return hadRuntimeError;
+    }
+
+    public boolean succeeded() {
+        return !hadError && !hadRuntimeError;
+    }
+}
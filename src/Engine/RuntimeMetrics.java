@@ -0,0 +1,140 @@
+package Engine;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counters for every script an engine runs, kept in LongAdders so threads
+// running scripts at the same time do not contend on them. register()
+// publishes them as an MXBean:
+//
+//     RuntimeMetrics metrics = new RuntimeMetrics();
+//     metrics.register("main");    // BisayaPlusPlus:type=Engine,name=main
+//     BisayaEngine engine = new BisayaEngine(false, Limits.NONE, metrics);
+public final class RuntimeMetrics implements Metrics, RuntimeMetricsMXBean {
+    // Messages name the variable involved, so the map is capped; errors
+    // past the cap are counted under OTHER_ERRORS.
+    static final int MAX_ERROR_MESSAGES = 1000;
+    static final String OTHER_ERRORS = "(other)";
+
+    private final LongAdder scripts = new LongAdder();
+    private final LongAdder syntaxErrors = new LongAdder();
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder tokens = new LongAdder();
+    private final LongAdder outputBytes = new LongAdder();
+    private final LongAccumulator maxDepth = new LongAccumulator(Math::max, 0);
+    private final ConcurrentHashMap<String, LongAdder> runtimeErrors = new ConcurrentHashMap<>();
+    private final Histogram lexTime = new Histogram();
+    private final Histogram parseTime = new Histogram();
+    private final Histogram executionTime = new Histogram();
+
+    public ObjectName register(String name) throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName = new ObjectName("BisayaPlusPlus:type=Engine,name=" + ObjectName.quote(name));
+        server.registerMBean(this, objectName);
+        return objectName;
+    }
+
+    @Override
+    public void lexed(long nanos, int tokens) {
+        lexTime.record(nanos);
+        this.tokens.add(tokens);
+    }
+
+    @Override
+    public void parsed(long nanos, int statements, boolean hadError) {
+        parseTime.record(nanos);
+        if (hadError) syntaxErrors.increment();
+    }
+
+    @Override
+    public void executed(long nanos, long statements, int maxDepth, long outputBytes) {
+        scripts.increment();
+        executionTime.record(nanos);
+        this.statements.add(statements);
+        this.maxDepth.accumulate(maxDepth);
+        this.outputBytes.add(outputBytes);
+    }
+
+    @Override
+    public void runtimeError(String message) {
+        LongAdder count = runtimeErrors.get(message);
+        if (count == null) {
+            String key = runtimeErrors.size() < MAX_ERROR_MESSAGES ? message : OTHER_ERRORS;
+            count = runtimeErrors.computeIfAbsent(key, k -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    @Override
+    public long getScriptsExecuted() {
+        return scripts.sum();
+    }
+
+    @Override
+    public long getSyntaxErrors() {
+        return syntaxErrors.sum();
+    }
+
+    @Override
+    public long getStatementsExecuted() {
+        return statements.sum();
+    }
+
+    @Override
+    public long getTokensLexed() {
+        return tokens.sum();
+    }
+
+    @Override
+    public long getOutputBytes() {
+        return outputBytes.sum();
+    }
+
+    @Override
+    public long getMaxEnvironmentDepth() {
+        return maxDepth.get();
+    }
+
+    @Override
+    public Map<String, Long> getRuntimeErrors() {
+        Map<String, Long> counts = new TreeMap<>();
+        runtimeErrors.forEach((message, count) -> counts.put(message, count.sum()));
+        return counts;
+    }
+
+    @Override
+    public Histogram.Snapshot getLexTime() {
+        return lexTime.snapshot();
+    }
+
+    @Override
+    public Histogram.Snapshot getParseTime() {
+        return parseTime.snapshot();
+    }
+
+    @Override
+    public Histogram.Snapshot getExecutionTime() {
+        return executionTime.snapshot();
+    }
+
+    @Override
+    public void reset() {
+        scripts.reset();
+        syntaxErrors.reset();
+        statements.reset();
+        tokens.reset();
+        outputBytes.reset();
+        maxDepth.reset();
+        runtimeErrors.clear();
+        lexTime.reset();
+        parseTime.reset();
+        executionTime.reset();
+    }
+}
@@ -0,0 +1,29 @@
+package Engine;
+
+import java.util.Map;
+
+// The JMX view of RuntimeMetrics.
+public interface RuntimeMetricsMXBean {
+    long getScriptsExecuted();
+
+    long getSyntaxErrors();
+
+    long getStatementsExecuted();
+
+    long getTokensLexed();
+
+    long getOutputBytes();
+
+    long getMaxEnvironmentDepth();
+
+    // Runtime error message to how often it was raised.
+    Map<String, Long> getRuntimeErrors();
+
+    Histogram.Snapshot getLexTime();
+
+    Histogram.Snapshot getParseTime();
+
+    Histogram.Snapshot getExecutionTime();
+
+    void reset();
+}
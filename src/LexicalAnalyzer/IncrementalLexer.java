@@ -0,0 +1,222 @@
+package LexicalAnalyzer;
+
+import Utils.Diagnostics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+// The tokens of a source that is edited in place, as in an editor. An edit
+// is lexed again from the token before it, one scan step at a time, until
+// the Lexer starts a token exactly where an old token after the edit
+// started: from there on the old tokens are right and are kept, the same
+// Token objects, moved by the edit's length and line count. Between tokens
+// the Lexer carries nothing but its position and line, which is what
+// makes that point safe.
+//
+// Lexical errors are kept with the position of the scan step that found
+// them, so errors outside the edit survive it.
+public final class IncrementalLexer {
+    // What an edit did to the token list: tokens [from, oldTo) were
+    // replaced by the ones now at [from, newTo).
+    public static final class Change {
+        private final int from;
+        private final int oldTo;
+        private final int newTo;
+
+        Change(int from, int oldTo, int newTo) {
+            this.from = from;
+            this.oldTo = oldTo;
+            this.newTo = newTo;
+        }
+
+        public int from() {
+            return from;
+        }
+
+        public int oldTo() {
+            return oldTo;
+        }
+
+        public int newTo() {
+            return newTo;
+        }
+    }
+
+    private static final class LexError {
+        int offset;
+        int line;
+        final String message;
+
+        LexError(int offset, int line, String message) {
+            this.offset = offset;
+            this.line = line;
+            this.message = message;
+        }
+    }
+
+    private String source;
+    private final ArrayList<Token> tokens = new ArrayList<>();
+    private final List<Token> view = Collections.unmodifiableList(tokens);
+    // Per token: where its scan step started and ended, and the line there.
+    private int[] starts = new int[0];
+    private int[] ends = new int[0];
+    private int[] startLines = new int[0];
+    private final ArrayList<LexError> errors = new ArrayList<>();
+    // Shared by every edit's tokens, so a name keeps its String across edits.
+    private final NameTable names = new NameTable();
+
+    public IncrementalLexer(String source) {
+        this.source = source;
+        relex(0, 1, 0, 0, Integer.MAX_VALUE, 0);
+    }
+
+    public String source() {
+        return source;
+    }
+
+    // Ends with EOF. Valid until the next edit.
+    public List<Token> tokens() {
+        return view;
+    }
+
+    // Replaces `removed` chars at `offset` with `inserted`.
+    public Change edit(int offset, int removed, String inserted) {
+        Objects.checkFromIndexSize(offset, removed, source.length());
+        source = source.substring(0, offset) + inserted + source.substring(offset + removed);
+
+        // The first token touching the edit, then one more back: the token
+        // before may have stopped only because of what was there (an
+        // identifier running into it, KUNG looking for WALA).
+        int touched = firstEndingAtOrAfter(offset);
+        if (touched == 0) {
+            // Nothing before it, but what precedes the first token (an
+            // unclosed char literal, say) may have looked at the edit.
+            return relex(0, 1, 0, 0, offset + removed, inserted.length() - removed);
+        }
+        int from = touched - 1;
+        while (from > 0 && starts[from - 1] == starts[from]) from--;   // ++ is two tokens
+        return relex(from, startLines[from], starts[from], touched, offset + removed, inserted.length() - removed);
+    }
+
+    // Lexes from token `from` (at source offset `at`) until back in step
+    // with the old tokens after editEnd, which then move by delta.
+    private Change relex(int from, int line, int at, int touched, int editEnd, int delta) {
+        List<LexError> found = new ArrayList<>();
+        int[] step = new int[2];
+        Diagnostics capture = new Diagnostics() {
+            @Override
+            public void error(int line, String message) {
+                found.add(new LexError(step[0], line, message));
+            }
+        };
+        Lexer lexer = new Lexer(source, at, source.length(), line, capture);
+        TokenStream fresh = new TokenStream(source, names);
+        int[] freshLines = new int[16];
+
+        int resync = -1;
+        while (true) {
+            int position = lexer.position();
+            if (position - delta >= editEnd) {
+                resync = tokenStartingAt(position - delta, touched);
+                if (resync >= 0) break;
+            }
+            int before = fresh.size();
+            step[0] = position;
+            step[1] = lexer.line();
+            if (!lexer.step(fresh)) break;
+            if (fresh.size() > freshLines.length) freshLines = Arrays.copyOf(freshLines, Math.max(fresh.size(), freshLines.length * 2));
+            for (int i = before; i < fresh.size(); i++) freshLines[i] = step[1];
+        }
+
+        int oldCount = tokens.size();
+        int oldTo = resync >= 0 ? resync : oldCount;
+        int added = fresh.size() + (resync >= 0 ? 0 : 1);
+        int kept = resync >= 0 ? oldCount - resync : 0;
+        int newCount = from + added + kept;
+        int lineDelta = resync >= 0 ? lexer.line() - startLines[resync] : 0;
+        int errorsTo = resync >= 0 ? starts[resync] : Integer.MAX_VALUE;
+
+        // The kept tail moves in place; only the edited stretch is new.
+        if (newCount > starts.length) {
+            int capacity = Math.max(newCount, starts.length * 2);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            startLines = Arrays.copyOf(startLines, capacity);
+        }
+        int tail = from + added;
+        System.arraycopy(starts, oldTo, starts, tail, kept);
+        System.arraycopy(ends, oldTo, ends, tail, kept);
+        System.arraycopy(startLines, oldTo, startLines, tail, kept);
+        for (int i = tail; i < newCount; i++) {
+            starts[i] += delta;
+            ends[i] += delta;
+            startLines[i] += lineDelta;
+        }
+        if (lineDelta != 0) {
+            for (int i = oldTo; i < oldCount; i++) tokens.get(i).shiftLine(lineDelta);
+        }
+
+        List<Token> replacement = new ArrayList<>(added);
+        for (int i = 0; i < fresh.size(); i++) {
+            replacement.add(fresh.token(i));
+            starts[from + i] = fresh.start(i);
+            ends[from + i] = fresh.end(i);
+            startLines[from + i] = freshLines[i];
+        }
+        if (resync < 0) {
+            replacement.add(new Token(TokenType.EOF, "", null, lexer.line()));
+            starts[tail - 1] = ends[tail - 1] = source.length();
+            startLines[tail - 1] = lexer.line();
+        }
+        List<Token> replaced = tokens.subList(from, oldTo);
+        replaced.clear();
+        replaced.addAll(replacement);
+
+        int first = 0;
+        while (first < errors.size() && errors.get(first).offset < at) first++;
+        int last = first;
+        while (last < errors.size() && errors.get(last).offset < errorsTo) last++;
+        for (int i = last; i < errors.size(); i++) {
+            errors.get(i).offset += delta;
+            errors.get(i).line += lineDelta;
+        }
+        List<LexError> stale = errors.subList(first, last);
+        stale.clear();
+        stale.addAll(found);
+
+        return new Change(from, oldTo, from + added);
+    }
+
+    // Index of the first token whose scan step ends at or after offset. EOF
+    // ends at the end of the source, so there always is one.
+    private int firstEndingAtOrAfter(int offset) {
+        int low = 0;
+        int high = tokens.size() - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (ends[middle] < offset) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+
+    // The first old token (EOF aside) at or after `from` starting at offset, or -1.
+    private int tokenStartingAt(int offset, int from) {
+        int low = from;
+        int high = tokens.size() - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (starts[middle] < offset) low = middle + 1;
+            else high = middle;
+        }
+        return low < tokens.size() - 1 && starts[low] == offset ? low : -1;
+    }
+
+    // Reports the lexical errors, in source order.
+    public void report(Diagnostics diagnostics) {
+        for (LexError error : errors) diagnostics.error(error.line, error.message);
+    }
+}
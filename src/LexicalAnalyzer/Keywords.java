@@ -0,0 +1,84 @@
+package LexicalAnalyzer;
+
+// Recognizes keywords straight from the lexer's char buffer, without
+// cutting a String out of it first. Each keyword sits at its own slot of a
+// small table, addressed by a hash of its length and first and last chars;
+// the multiplier that keeps those slots apart is searched for once when
+// the class loads, so the table stays collision-free as keywords change.
+// Only the multiplier modulo SIZE matters, so the search tries 1 to SIZE
+// and fails class loading when none fits; SIZE must then grow.
+// A lookup is one hash, one slot, and a char-by-char compare.
+final class Keywords {
+    // find() results for the words that may start a two-word keyword
+    // (KUNG WALA, KUNG DILI, ALANG SA); the Lexer handles what follows.
+    static final int KUNG = 0;
+    static final int ALANG = 1;
+
+    private static final String[] WORDS = {
+            "KUNG", "ALANG",
+            "MUGNA", "SUGOD", "KATAPUSAN", "NUMERO", "TIPIK", "LETRA", "TINUOD",
+            "IPAKITA", "DAWAT", "PUNDOK", "UG", "O",
+    };
+    private static final TokenType[] TYPES = {
+            TokenType.IF, null,
+            TokenType.MUGNA, TokenType.START, TokenType.END, TokenType.NUMERO, TokenType.TIPIK, TokenType.LETRA,
+            TokenType.TINUOD, TokenType.PRINT, TokenType.INPUT, TokenType.BLOCK, TokenType.AND, TokenType.OR,
+    };
+
+    private static final int SIZE = 32;
+    private static final int MASK = SIZE - 1;
+    private static final int MULTIPLIER;
+    private static final char[][] SLOT_CHARS = new char[SIZE][];
+    private static final int[] SLOT_INDEX = new int[SIZE];
+
+    static {
+        int multiplier = 1;
+        while (multiplier <= SIZE && !fits(multiplier)) multiplier++;
+        if (multiplier > SIZE) {
+            throw new ExceptionInInitializerError("No multiplier places the keywords in " + SIZE + " slots");
+        }
+        MULTIPLIER = multiplier;
+        for (int i = 0; i < WORDS.length; i++) {
+            char[] chars = WORDS[i].toCharArray();
+            int slot = slot(multiplier, chars[0], chars[chars.length - 1], chars.length);
+            SLOT_CHARS[slot] = chars;
+            SLOT_INDEX[slot] = i;
+        }
+    }
+
+    private Keywords() {
+    }
+
+    private static boolean fits(int multiplier) {
+        boolean[] used = new boolean[SIZE];
+        for (String word : WORDS) {
+            int slot = slot(multiplier, word.charAt(0), word.charAt(word.length() - 1), word.length());
+            if (used[slot]) return false;
+            used[slot] = true;
+        }
+        return true;
+    }
+
+    private static int slot(int multiplier, char first, char last, int length) {
+        return (first * multiplier + last * 31 + length) & MASK;
+    }
+
+    // Index of the keyword spelled by chars[from, from + length), or -1.
+    static int find(char[] chars, int from, int length) {
+        int slot = slot(MULTIPLIER, chars[from], chars[from + length - 1], length);
+        char[] word = SLOT_CHARS[slot];
+        if (word == null || word.length != length) return -1;
+        for (int i = 0; i < length; i++) {
+            if (word[i] != chars[from + i]) return -1;
+        }
+        return SLOT_INDEX[slot];
+    }
+
+    static TokenType type(int keyword) {
+        return TYPES[keyword];
+    }
+
+    static String word(int keyword) {
+        return WORDS[keyword];
+    }
+}
@@ -1,54 +1,195 @@
 package LexicalAnalyzer;
 
+import Utils.Diagnostics;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-
-public class Lexer {
-    private final String source;
-    private final List<Token> tokens = new ArrayList<>();
+import java.util.NoSuchElementException;
+
+// Tokens are pulled one at a time through next(), so a Parser built on the
+// Lexer itself only ever holds its lookahead. The source is read in chunks
+// into a window that keeps just the text of the token being scanned;
+// positions (start, current) are offsets into the whole source.
+public class Lexer implements Iterator<Token> {
+    private static final int CHUNK_SIZE = 8192;
+
+    private final Reader reader;
+    private final Diagnostics diagnostics;
+    private char[] buffer = new char[CHUNK_SIZE];
+    private int offset = 0;   // source position of buffer[0]
+    private int limit = 0;    // source position one past the last buffered char
+    private int end = Integer.MAX_VALUE;   // source position this Lexer stops at
+    private boolean exhausted = false;
+    private boolean ranOut = false;   // a string, escape code, char or KUNG/ALANG gap hit the end
+
+    private final ArrayDeque<Token> pending = new ArrayDeque<>();
+    private boolean emittedEof = false;
     private  int start = 0;
     private int current =0;
     private int line = 1;
-    private static final Map<String, TokenType> keywords;
+    private final NameTable names = new NameTable();
+    private TokenStream stream = null;   // set while scanInto() runs
 
     public Lexer(String source){
-        this.source = source;
-    }
-
-    static {
-        keywords = new HashMap<>();
-        keywords.put("MUGNA",TokenType.MUGNA);
-        keywords.put("SUGOD",TokenType.START);
-        keywords.put("KATAPUSAN",TokenType.END);
-        keywords.put("NUMERO",TokenType.NUMERO);
-        keywords.put("TIPIK",TokenType.TIPIK);
-        keywords.put("LETRA",TokenType.LETRA);
-        keywords.put("TINUOD",TokenType.TINUOD);
-        keywords.put("IPAKITA",TokenType.PRINT);
-        keywords.put("DAWAT",TokenType.INPUT);
-//        keywords.put("KUNG",TokenType.IF);
-//        keywords.put("KUNG WALA",TokenType.ELSE);
-//        keywords.put("KUNG DILI",TokenType.ELSE_IF);
-        keywords.put("PUNDOK",TokenType.BLOCK);
-//        keywords.put("ALANG SA",TokenType.FOR);
-        keywords.put("UG",TokenType.AND);
-        keywords.put("O",TokenType.OR);
+        this(new StringReader(source));
+    }
+
+    public Lexer(Reader reader){
+        this(reader, Diagnostics.printing());
+    }
+
+    public Lexer(String source, Diagnostics diagnostics){
+        this(new StringReader(source), diagnostics);
+    }
+
+    public Lexer(Reader reader, Diagnostics diagnostics){
+        this.reader = reader;
+        this.diagnostics = diagnostics;
+    }
+
+    // Lexes only source[from, to), counting lines from the given one.
+    // Positions stay offsets into the whole source, so ParallelLexer can
+    // put the pieces of one TokenStream together.
+    Lexer(String source, int from, int to, int line, Diagnostics diagnostics) {
+        this(new StringReader(source), diagnostics);
+        try {
+            reader.skip(from);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.offset = this.limit = this.start = this.current = from;
+        this.end = to;
+        this.line = line;
     }
 
     public List<Token> scanTokens(){
-        while (!isAtEnd()){
+        List<Token> tokens = new ArrayList<>();
+        while (hasNext()){
+            tokens.add(next());
+        }
+        return tokens;
+    }
+
+    // Lexes the rest of the source into a TokenStream instead of Token
+    // objects. Positions are source offsets, so the stream has to be built
+    // over the same text this Lexer reads.
+    TokenStream scanInto(TokenStream stream) {
+        scanPart(stream);
+        stream.add(TokenType.EOF, current, 0, line, null);
+        return stream;
+    }
+
+    // scanInto() without the EOF token; returns the line the part ends on.
+    // Check ranOut() afterwards: the last token may belong to a longer one.
+    int scanPart(TokenStream stream) {
+        this.stream = stream;
+        while (!isAtEnd()) {
             start = current;
             scanToken();
         }
+        emittedEof = true;
+        return line;
+    }
 
-        tokens.add(new Token(TokenType.EOF, "",null, line));
-        return tokens;
+    boolean ranOut() {
+        return ranOut;
+    }
+
+    // Scans from the current position up to the next token start, adding
+    // whatever it finds to the stream; false once the source is used up.
+    // IncrementalLexer steps this way so it can stop as soon as it is back
+    // in step with the tokens it already has.
+    boolean step(TokenStream stream) {
+        this.stream = stream;
+        if (isAtEnd()) return false;
+        start = current;
+        scanToken();
+        return true;
+    }
+
+    int position() {
+        return current;
+    }
+
+    int line() {
+        return line;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !emittedEof;
+    }
+
+    @Override
+    public Token next() {
+        if (emittedEof) throw new NoSuchElementException();
+        while (pending.isEmpty()) {
+            if (isAtEnd()) {
+                pending.add(new Token(TokenType.EOF, "", null, line));
+                break;
+            }
+            start = current;
+            scanToken();
+        }
+        Token token = pending.poll();
+        if (token.type == TokenType.EOF) emittedEof = true;
+        return token;
     }
 
     public boolean isAtEnd(){
-        return current >= source.length();
+        return !available(current);
+    }
+
+    // Makes sure the char at the given source position is buffered, reading
+    // more of the source if needed. Returns false past the end of the source.
+    private boolean available(int position) {
+        return position < limit || fill(position);
+    }
+
+    private boolean fill(int position) {
+        try {
+            while (position >= limit) {
+                if (exhausted) return false;
+                if (limit >= end) {
+                    exhausted = true;
+                    return false;
+                }
+                // Nothing before the current token's start is looked at again.
+                int discard = start - offset;
+                if (discard > 0) {
+                    System.arraycopy(buffer, discard, buffer, 0, limit - start);
+                    offset = start;
+                }
+                if (limit - offset == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                int read = reader.read(buffer, limit - offset, Math.min(buffer.length - (limit - offset), end - limit));
+                if (read == -1) {
+                    exhausted = true;
+                    reader.close();
+                    return false;
+                }
+                limit += read;
+            }
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private char charAt(int position) {
+        return buffer[position - offset];
+    }
+
+    private String substring(int from, int to) {
+        return new String(buffer, from - offset, to - from);
     }
 
     private void scanToken(){
@@ -107,7 +248,7 @@ public class Lexer {
                 }else if(isAlpha(val)){
                     identifier();
                 }else{
-                    Lox.error(line, "Unexpected character." + " " + val);
+                    diagnostics.error(line, "Unexpected character." + " " + val);
                 }
                 break;
 
@@ -117,16 +258,16 @@ public class Lexer {
 
     private char peek(){
         if(isAtEnd()) return '\0';
-        return source.charAt(current);
+        return charAt(current);
     }
 
     private char peekNext(){
-        if(current + 1 >= source.length()) return '\0';
-        return source.charAt(current + 1);
+        if(!available(current + 1)) return '\0';
+        return charAt(current + 1);
     }
 
     private char advance(){
-        return  source.charAt(current++);
+        return  charAt(current++);
     }
 
     private void addToken(TokenType type){
@@ -134,14 +275,18 @@ public class Lexer {
     }
 
     private void addToken(TokenType type, Object literal){
-        String text = source.substring(start, current);
-        tokens.add(new Token(type, text, literal, line));
+        if (stream != null) {
+            stream.add(type, start, current - start, line, literal);
+            return;
+        }
+        String text = substring(start, current);
+        pending.add(new Token(type, text, literal, line));
 
     }
 
     private boolean match(char expected){
         if(isAtEnd()) return false;
-        if(source.charAt(current) != expected) return false;
+        if(charAt(current) != expected) return false;
 
         current++;
         return true;
@@ -154,13 +299,14 @@ public class Lexer {
         }
 
         if (isAtEnd()){
-            Lox.error(line, "Unclosed string.");
+            ranOut = true;
+            diagnostics.error(line, "Unclosed string.");
             return;
         }
 
         advance();
 
-        String value = source.substring(start + 1, current - 1);
+        String value = substring(start + 1, current - 1);
         if (value.equals("OO")) {
             addToken(TokenType.BOOL_TRUE, true);
             return;
@@ -174,7 +320,8 @@ public class Lexer {
 
     private void character() {
         if (isAtEnd()) {
-            Lox.error(line, "Unclosed character literal.");
+            ranOut = true;
+            diagnostics.error(line, "Unclosed character literal.");
             return;
         }
 
@@ -186,7 +333,8 @@ public class Lexer {
         }
 
         if (peek() != '\'') {
-            Lox.error(line, "Unclosed or invalid character literal.");
+            if (isAtEnd()) ranOut = true;
+            diagnostics.error(line, "Unclosed or invalid character literal.");
             return;
         }
 
@@ -194,7 +342,7 @@ public class Lexer {
 
 
         if (c == '\0') {
-            Lox.error(line, "Invalid character literal.");
+            diagnostics.error(line, "Invalid character literal.");
             return;
         }
 
@@ -210,16 +358,17 @@ public class Lexer {
         }
 
         if (isAtEnd()) {
-            Lox.error(line, "Unclosed escape code. Expected ']'.");
+            ranOut = true;
+            diagnostics.error(line, "Unclosed escape code. Expected ']'.");
             return;
         }
 
         advance(); // Consume closing ']'
 
-        String value = source.substring(bracketStart, current - 1);
+        String value = substring(bracketStart, current - 1);
 
         if (value.isEmpty()) {
-            Lox.error(line, "Empty brackets [] are not allowed.");
+            diagnostics.error(line, "Empty brackets [] are not allowed.");
             return;
         }
 
@@ -246,56 +395,53 @@ public class Lexer {
         if(peek() == '.' && isDigit(peekNext())){
             advance();
             while(isDigit(peek())) advance();
-            addToken(TokenType.FLOAT, Float.parseFloat(source.substring(start, current)));
+            addToken(TokenType.FLOAT, Float.parseFloat(substring(start, current)));
             return;
         }
-        addToken(TokenType.NUMBER, Double.parseDouble(source.substring(start, current)));
+        // NUMERO is a 4-byte int; a literal past its range is still a
+        // NUMBER token, so parsing goes on after the error.
+        String digits = substring(start, current);
+        int value = 0;
+        try {
+            value = Integer.parseInt(digits);
+        } catch (NumberFormatException e) {
+            diagnostics.error(line, "Number too large for NUMERO: " + digits);
+        }
+        addToken(TokenType.NUMBER, value);
     }
 
+    // Keywords and repeated names reuse a String instead of cutting a new
+    // one out of the buffer. KUNG and ALANG skip the whitespace after them
+    // to look for the second word, and a lone KUNG or ALANG keeps that
+    // whitespace in its lexeme.
     private void identifier() {
         while (isAlphaNumeric(peek())) advance();
 
-        String text = source.substring(start, current);
-        TokenType type = keywords.get(text);
-
-
-        if (text.equals("KUNG")) {
-            skipWhitespace(); // allow spaces after KUNG
-
-            int saveCurrent = current;
-            int saveStart = start;
-
-
+        int keyword = Keywords.find(buffer, start - offset, current - start);
+        if (keyword == Keywords.KUNG) {
+            skipWhitespace();
             if (matchWord("WALA")) {
-                addToken(TokenType.ELSE); //  Treat "KUNG WALA" as ELSE
-                return;
-            }
-
-            else if (matchWord("DILI")) {
-                addToken(TokenType.ELSE_IF); //  Treat "KUNG DILI" as ELSE_IF
-                return;
+                addToken(TokenType.ELSE);
+            } else if (matchWord("DILI")) {
+                addToken(TokenType.ELSE_IF);
             } else {
-                current = saveCurrent; // rollback if not matched
-                start = saveStart;
+                addToken(TokenType.IF);
             }
-
-            type = TokenType.IF; // fallback: treat as IF
+            return;
         }
-
-        if(text.equals("ALANG")){
+        if (keyword == Keywords.ALANG) {
             skipWhitespace();
-
-            int saveCurrent = current;
-            int saveStart = start;
-
-            if (matchWord("SA")) {
-                addToken(TokenType.FOR);
-                return;
-            }
+            addToken(matchWord("SA") ? TokenType.FOR : TokenType.IDENTIFIER);
+            return;
         }
 
-        if (type == null) type = TokenType.IDENTIFIER;
-        addToken(type);
+        if (stream != null) {
+            addToken(keyword >= 0 ? Keywords.type(keyword) : TokenType.IDENTIFIER);
+        } else if (keyword >= 0) {
+            pending.add(new Token(Keywords.type(keyword), Keywords.word(keyword), null, line));
+        } else {
+            pending.add(new Token(TokenType.IDENTIFIER, names.intern(buffer, start - offset, current - start), null, line));
+        }
     }
 
 
@@ -304,16 +450,17 @@ public class Lexer {
             if (peek() == '\n') line++;
             advance();
         }
+        if (isAtEnd()) ranOut = true;
     }
 
 
     private boolean matchWord(String expected) {
         int length = expected.length();
-        if (current + length > source.length()) return false;
-
-        String next = source.substring(current, current + length);
+        for (int i = 0; i < length; i++) {
+            if (!available(current + i) || charAt(current + i) != expected.charAt(i)) return false;
+        }
 
-        if (next.equals(expected) && isBoundary(current + length)) {
+        if (isBoundary(current + length)) {
             current += length;
             return true;
         }
@@ -323,7 +470,7 @@ public class Lexer {
 
     // Check that the next character is a boundary (end or not alphanumeric)
     private boolean isBoundary(int index) {
-        return index >= source.length() || !isAlphaNumeric(source.charAt(index));
+        return !available(index) || !isAlphaNumeric(charAt(index));
     }
 
 
@@ -1,39 +1,152 @@
 package LexicalAnalyzer;
 
-import SemanticAnalyzer.Interpreter;
+import Engine.BatchRunner;
+import Engine.BisayaEngine;
+import Engine.Metrics;
+import Engine.Program;
+import SemanticAnalyzer.Profiler;
 import SyntaxAnalyzer.*;
-import Utils.RuntimeError;
+import Utils.Diagnostics;
+import Utils.Input;
+import Utils.Limits;
+import Utils.Output;
 
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.Reader;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
 import java.util.Scanner;
 
+// Command line front end. Everything a run needs lives in BisayaEngine;
+// the statics here are just the options of this one process.
 public class Lox {
-    static  boolean hadError = false;
-    static boolean hadRuntimeError = false;
-    private static final Interpreter interpreter = new
-            Interpreter();
+    private static final int maxErrors = Integer.getInteger("bisaya.maxErrors", Diagnostics.UNLIMITED);
+    private static final Diagnostics diagnostics = Diagnostics.printing(maxErrors);
+    private static BisayaEngine engine;
+    private static BisayaEngine.Backend backend = BisayaEngine.Backend.INTERPRETER;
+    private static boolean stream = false;
+    private static boolean mmap = false;
+    private static boolean dumpAst = false;
+    private static AstCache cache = null;
+    private static boolean parallelLex = false;
+    private static boolean profile = false;
+    private static String flamegraph = null;
+    private static Input input = null;
     public static void main(String[] args) throws IOException {
-        if(args.length > 1){
-            System.out.println("Usage: jlox [script]");
-            System.exit(64);
-        }else if(args.length == 1){
-            runFile(args[0]);
+        String script = null;
+        String batch = null;
+        Integer flushBytes = Integer.getInteger("bisaya.output.flushBytes");
+        if (flushBytes != null) Output.standard().setFlushThreshold(flushBytes);
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--vm")) {
+                backend = BisayaEngine.Backend.VM;
+            } else if (arg.equals("--nodes")) {
+                backend = BisayaEngine.Backend.NODES;
+            } else if (arg.equals("--stream")) {
+                stream = true;
+            } else if (arg.equals("--mmap")) {
+                mmap = true;
+            } else if (arg.equals("--dump-ast")) {
+                dumpAst = true;
+            } else if (arg.equals("--line-buffered")) {
+                Output.standard().setLineBuffered(true);
+            } else if (arg.equals("--cache")) {
+                cache = new AstCache(cacheDirectory(), Long.getLong("bisaya.cache.maxBytes", 64L * 1024 * 1024));
+            } else if (arg.equals("--parallel-lex")) {
+                parallelLex = true;
+            } else if (arg.equals("--profile")) {
+                profile = true;
+            } else if (arg.equals("--flamegraph") && i + 1 < args.length) {
+                flamegraph = args[++i];
+            } else if (arg.equals("--input") && i + 1 < args.length && input == null) {
+                input = Input.of(Paths.get(args[++i]), Charset.defaultCharset());
+            } else if (arg.equals("--batch") && i + 1 < args.length && batch == null) {
+                batch = args[++i];
+            } else if (script == null && !arg.equals("--batch") && !arg.equals("--flamegraph")
+                    && !arg.equals("--input")) {
+                script = arg;
+            } else {
+                System.out.println("Usage: jlox [--vm|--nodes] [--stream] [--mmap] [--dump-ast] [--cache] [--line-buffered] [--parallel-lex] [--profile] [--flamegraph file] [--input file] [--batch dir|manifest] [script]");
+                System.exit(64);
+            }
+        }
+
+        if (input == null) input = Input.standard();
+        engine = new BisayaEngine(backend, Limits.fromSystemProperties(), Metrics.NONE);
+        if (batch != null) {
+            runBatch(batch);
+        } else if(script != null){
+            runFile(script);
         }else {
             runPrompt();
         }
     }
 
+    // Runs every program of a directory or manifest in this one JVM and
+    // prints a line per program plus totals.
+    private static void runBatch(String path) throws IOException {
+        String out = System.getProperty("bisaya.batch.out");
+        BatchRunner runner = new BatchRunner(engine,
+                Integer.getInteger("bisaya.batch.parallelism", Runtime.getRuntime().availableProcessors()),
+                Long.getLong("bisaya.batch.timeoutMillis", 10_000L),
+                Integer.getInteger("bisaya.batch.maxOutputBytes", BatchRunner.DEFAULT_MAX_OUTPUT_BYTES),
+                out == null ? null : Paths.get(out),
+                maxErrors);
+        List<BatchRunner.Job> jobs = BatchRunner.jobs(Paths.get(path));
+        long start = System.nanoTime();
+        List<BatchRunner.Result> results;
+        try {
+            results = runner.run(jobs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        BatchRunner.printSummary(results, System.nanoTime() - start, new PrintWriter(System.out));
+    }
+
+    private static Path cacheDirectory() {
+        String directory = System.getProperty("bisaya.cache.dir");
+        if (directory != null) return Paths.get(directory);
+        return Paths.get(System.getProperty("user.home"), ".bisayapp", "cache");
+    }
+
     private static void runFile(String path) throws IOException{
-        byte[] bytes = Files.readAllBytes(Paths.get(path));
-        run(new String(bytes, Charset.defaultCharset()));
-        if(hadError) System.exit(65);
-        if (hadRuntimeError) System.exit(70);
+        if (stream || mmap) {
+            // Lex straight from the file as the parser asks for tokens,
+            // without reading the whole source or keeping the token list.
+            try (Reader reader = mmap
+                    ? new MappedSourceReader(Paths.get(path), Charset.defaultCharset())
+                    : new InputStreamReader(Files.newInputStream(Paths.get(path)), Charset.defaultCharset())) {
+                execute(engine.compile(reader, diagnostics));
+            }
+        } else if (cache != null) {
+            // An unchanged script loads its parsed tree from the cache and
+            // skips lexing and parsing.
+            byte[] bytes = Files.readAllBytes(Paths.get(path));
+            String key = AstCache.key(bytes);
+            List<Stmt> statements = cache.load(key);
+            if (statements == null) {
+                statements = new Parser(new Lexer(new String(bytes, Charset.defaultCharset()), diagnostics), diagnostics).parse();
+                if (!diagnostics.hadError()) cache.store(key, statements);
+            }
+            execute(engine.compile(statements, diagnostics));
+        } else {
+            byte[] bytes = Files.readAllBytes(Paths.get(path));
+            run(new String(bytes, Charset.defaultCharset()));
+        }
+        if (diagnostics.limitReached()) {
+            System.err.println("Stopped after " + maxErrors + " errors.");
+        }
+        if(diagnostics.hadError()) System.exit(65);
+        if (diagnostics.hadRuntimeError()) System.exit(70);
     }
 //
 //    private static void runPrompt() throws IOException{
@@ -66,57 +179,65 @@ public class Lox {
 
 
     private static void run(String source) {
-        Lexer scanner = new Lexer(source);
-        List<Token> tokens = scanner.scanTokens();
-        Parser parser = new Parser(tokens);
+        // Kept compact until the dump at the end, which builds each Token
+        // only as it is printed.
+        TokenStream tokens = parallelLex
+                ? new ParallelLexer().scan(source, diagnostics)
+                : TokenStream.scan(source, diagnostics);
+        Parser parser = new Parser(tokens, diagnostics);
 
         List<Stmt> statements = parser.parse();
         // Stop if there was a syntax error.
-        if (hadError) return;
-
-        // Print the parsed statements
-//        AstPrinter printer = new AstPrinter();
-//        for (Stmt statement : statements) {
-//            System.out.println(printer.print(statement));
-//        }
-
-        interpreter.interpret(statements);
+        if (!execute(engine.compile(statements, diagnostics))) return;
         System.out.println("_____________________");
         System.out.println("_____________________");
-        for (Token token : tokens) {
-            System.out.println(token);
+        for (int i = 0; i < tokens.size(); i++) {
+            System.out.println(tokens.token(i));
         }
     }
 
-    public static String getInput() {
-        Scanner scanner = new Scanner(System.in);
-        System.out.print("Enter input: ");
-        return scanner.nextLine();
-    }
-
-    static void error(int line, String message) {
-        report(line, "", message);
-    }
+    private static boolean execute(Program program) {
+        if (program.hasErrors()) return false;
 
-    public static void error(Token token, String message) {
-        if (token.type == TokenType.EOF) {
-            report(token.line, " at end", message);
+        if (dumpAst) {
+            printStatements("Parsed:", program.parsed());
+            printStatements("Optimized:", program.statements());
+        }
+        if (profile || flamegraph != null) {
+            profile(program);
         } else {
-            report(token.line, " at '" + token.lexeme + "'",
-                    message);
+            engine.execute(program, Output.standard(), input, diagnostics);
         }
+        return true;
     }
 
-    public static void runtimeError(RuntimeError error) {
-        System.err.println(error.getMessage() +
-                "\n[line " + error.getToken().line + "]");
-        hadRuntimeError = true;
+    // Runs on the tree walker and reports where the time went once the
+    // program ends, even if it ended with a runtime error.
+    private static void profile(Program program) {
+        Profiler profiler = new Profiler();
+        engine.profile(program, Output.standard(), input, diagnostics, profiler);
+        if (profile) profiler.report(new PrintWriter(System.err));
+        if (flamegraph != null) {
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(flamegraph)))) {
+                profiler.writeCollapsed(out);
+            } catch (IOException e) {
+                System.err.println("Could not write " + flamegraph + ": " + e.getMessage());
+            }
+        }
     }
 
-    private static void report(int line, String where, String message){
-        System.err.println("[line " + line + "] Error" + where + ": " + message);
-        hadError = true;
+    private static void printStatements(String title, List<Stmt> statements) {
+        AstPrinter printer = new AstPrinter();
+        System.out.println(title);
+        for (Stmt statement : statements) {
+            System.out.println(printer.print(statement));
+        }
     }
 
+    public static String getInput() {
+        Scanner scanner = new Scanner(System.in);
+        System.out.print("Enter input: ");
+        return scanner.nextLine();
+    }
 
 }
@@ -0,0 +1,101 @@
+package LexicalAnalyzer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Reads a script straight out of a memory-mapped file, so the Lexer scans
+// the mapped pages instead of a byte[] copy and a decoded String copy.
+// Scripts are almost entirely ASCII: those bytes are widened to chars
+// directly, and only runs of non-ASCII bytes (Cebuano text in strings and
+// comments) go through the charset decoder.
+public class MappedSourceReader extends Reader {
+    private static final int DECODE_CHUNK = 1024;
+
+    private final MappedByteBuffer bytes;
+    private final CharsetDecoder decoder;
+    private final boolean asciiCompatible;
+    private final CharBuffer decoded = CharBuffer.allocate(DECODE_CHUNK);
+
+    public MappedSourceReader(Path path, Charset charset) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Script too large to map: " + path);
+            }
+            // The mapping stays valid after the channel is closed.
+            bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        // Same replacement behaviour as new String(bytes, charset).
+        decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        asciiCompatible = charset.equals(StandardCharsets.UTF_8)
+                || charset.equals(StandardCharsets.US_ASCII)
+                || charset.equals(StandardCharsets.ISO_8859_1);
+        decoded.flip();
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) {
+        if (len == 0) return 0;
+        int n = 0;
+        while (n < len) {
+            if (decoded.hasRemaining()) {
+                int count = Math.min(decoded.remaining(), len - n);
+                decoded.get(cbuf, off + n, count);
+                n += count;
+                continue;
+            }
+            if (!bytes.hasRemaining()) break;
+
+            int position = bytes.position();
+            if (asciiCompatible) {
+                int end = Math.min(bytes.limit(), position + (len - n));
+                int i = position;
+                byte b;
+                while (i < end && (b = bytes.get(i)) >= 0) {
+                    cbuf[off + n++] = (char) b;
+                    i++;
+                }
+                bytes.position(i);
+                if (i == end) continue;
+            }
+            decodeRun();
+        }
+        return n == 0 ? -1 : n;
+    }
+
+    // Decodes the bytes up to the next ASCII byte (or everything, for
+    // charsets where ASCII bytes may be part of a longer sequence) into the
+    // decoded buffer, at most DECODE_CHUNK bytes at a time.
+    private void decodeRun() {
+        int position = bytes.position();
+        int runEnd = bytes.limit();
+        if (asciiCompatible) {
+            runEnd = position;
+            while (runEnd < bytes.limit() && bytes.get(runEnd) < 0) runEnd++;
+        }
+        int end = Math.min(runEnd, position + DECODE_CHUNK);
+        ByteBuffer run = bytes.slice(position, end - position);
+        decoded.clear();
+        decoder.reset();
+        decoder.decode(run, decoded, end == runEnd);
+        if (end == runEnd) decoder.flush(decoded);
+        decoded.flip();
+        // A sequence cut off at the chunk edge is left for the next call.
+        bytes.position(position + run.position());
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,82 @@
+package LexicalAnalyzer;
+
+// Interns the identifiers of one Lexer or TokenStream. A name already seen
+// is found by hashing and comparing the buffered chars, so every later
+// occurrence of a variable shares the first one's String and nothing is
+// allocated for it. Open addressing over parallel arrays, kept at most half
+// full. Not thread-safe, but a lookup that finds its name writes nothing.
+final class NameTable {
+    private String[] names = new String[64];
+    private int[] hashes = new int[64];
+    private int size = 0;
+
+    String intern(char[] chars, int from, int length) {
+        int hash = 0;
+        for (int i = 0; i < length; i++) hash = 31 * hash + chars[from + i];
+
+        int mask = names.length - 1;
+        int index = spread(hash) & mask;
+        for (String name = names[index]; name != null; name = names[index]) {
+            if (hashes[index] == hash && matches(name, chars, from, length)) return name;
+            index = (index + 1) & mask;
+        }
+
+        return add(index, hash, new String(chars, from, length));
+    }
+
+    // intern() for a name in a String, such as a TokenStream's source.
+    String intern(String source, int from, int length) {
+        int hash = 0;
+        for (int i = 0; i < length; i++) hash = 31 * hash + source.charAt(from + i);
+
+        int mask = names.length - 1;
+        int index = spread(hash) & mask;
+        for (String name = names[index]; name != null; name = names[index]) {
+            if (hashes[index] == hash && name.length() == length && source.startsWith(name, from)) return name;
+            index = (index + 1) & mask;
+        }
+        return add(index, hash, source.substring(from, from + length));
+    }
+
+    // Interns every name of other, keeping this table's String for a name
+    // both have.
+    void addAll(NameTable other) {
+        for (String name : other.names) {
+            if (name != null) intern(name, 0, name.length());
+        }
+    }
+
+    private String add(int index, int hash, String name) {
+        names[index] = name;
+        hashes[index] = hash;
+        if (++size * 2 > names.length) grow();
+        return name;
+    }
+
+    private static boolean matches(String name, char[] chars, int from, int length) {
+        if (name.length() != length) return false;
+        for (int i = 0; i < length; i++) {
+            if (name.charAt(i) != chars[from + i]) return false;
+        }
+        return true;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private void grow() {
+        String[] oldNames = names;
+        int[] oldHashes = hashes;
+        names = new String[oldNames.length * 2];
+        hashes = new int[oldNames.length * 2];
+        int mask = names.length - 1;
+        for (int i = 0; i < oldNames.length; i++) {
+            if (oldNames[i] == null) continue;
+            int index = spread(oldHashes[i]) & mask;
+            while (names[index] != null) index = (index + 1) & mask;
+            names[index] = oldNames[i];
+            hashes[index] = oldHashes[i];
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package LexicalAnalyzer;
+
+import Utils.Diagnostics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+// Lexes a large source on several threads. The source is cut just after
+// newlines into pieces of about the same size, and every piece is lexed on
+// a fork-join pool as if it began a line, counting lines from 0. Almost
+// every newline does begin one; the exceptions are newlines inside a
+// string, an escape code or a char literal, and in the whitespace after
+// KUNG or ALANG (which the Lexer reads across lines to find WALA, DILI or
+// SA). A piece that ends inside one of those ran out of source, which the
+// Lexer reports, so the pieces are then put together in order:
+//
+//  - a piece that ran out is lexed again, sequentially, together with the
+//    pieces after it until the construct closes; the speculative result of
+//    those later pieces is dropped;
+//  - a piece with errors is lexed again at its real line, so the messages
+//    carry the right line numbers;
+//  - any other piece is kept, its lines shifted by the lines before it.
+//
+// The result, errors included, is the same as TokenStream.scan().
+public class ParallelLexer {
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    public ParallelLexer() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    // chunkSize is the number of chars each piece gets, at least.
+    public ParallelLexer(ForkJoinPool pool, int chunkSize) {
+        if (chunkSize < 1) throw new IllegalArgumentException("chunkSize must be positive");
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    public TokenStream scan(String source, Diagnostics diagnostics) {
+        int size = Math.max(chunkSize, source.length() / (pool.getParallelism() * 4) + 1);
+        int[] bounds = boundaries(source, size);
+        int count = bounds.length - 1;
+        if (count == 1) return TokenStream.scan(source, diagnostics);
+
+        List<Callable<Piece>> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int from = bounds[i];
+            int to = bounds[i + 1];
+            tasks.add(() -> lex(source, from, to, 0));
+        }
+        List<Future<Piece>> futures = pool.invokeAll(tasks);
+
+        List<TokenStream> parts = new ArrayList<>(count);
+        int[] shifts = new int[count];
+        int line = 1;
+        int i = 0;
+        while (i < count) {
+            Piece piece = join(futures.get(i));
+            if ((piece.ranOut && i + 1 < count) || piece.errors.hadError()) {
+                // Doubling the reach keeps a string that never closes linear.
+                int reach = piece.ranOut && i + 1 < count ? 2 : 1;
+                piece = lex(source, bounds[i], bounds[i + reach], line);
+                while (piece.ranOut && i + reach < count) {
+                    reach = Math.min(reach * 2, count - i);
+                    piece = lex(source, bounds[i], bounds[i + reach], line);
+                }
+                shifts[parts.size()] = 0;
+                parts.add(piece.tokens);
+                diagnostics.addAll(piece.errors);
+                line = piece.endLine;
+                i += reach;
+            } else {
+                shifts[parts.size()] = line;
+                parts.add(piece.tokens);
+                line += piece.endLine;
+                i++;
+            }
+        }
+        TokenStream stream = TokenStream.join(source, parts, shifts);
+        stream.add(TokenType.EOF, source.length(), 0, line, null);
+        return stream;
+    }
+
+    private static Piece lex(String source, int from, int to, int line) {
+        Diagnostics errors = new Diagnostics();
+        TokenStream tokens = new TokenStream(source);
+        Lexer lexer = new Lexer(source, from, to, line, errors);
+        int endLine = lexer.scanPart(tokens);
+        return new Piece(tokens, errors, endLine, lexer.ranOut());
+    }
+
+    // Piece starts, then source.length(). Each start is just past a newline.
+    private static int[] boundaries(String source, int size) {
+        List<Integer> starts = new ArrayList<>();
+        starts.add(0);
+        int at = size;
+        while (at < source.length()) {
+            int newline = source.indexOf('\n', at - 1);
+            if (newline < 0 || newline + 1 >= source.length()) break;
+            starts.add(newline + 1);
+            at = newline + 1 + size;
+        }
+        int[] bounds = new int[starts.size() + 1];
+        for (int i = 0; i < starts.size(); i++) bounds[i] = starts.get(i);
+        bounds[starts.size()] = source.length();
+        return bounds;
+    }
+
+    private static Piece join(Future<Piece> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while lexing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private record Piece(TokenStream tokens, Diagnostics errors, int endLine, boolean ranOut) {
+    }
+}
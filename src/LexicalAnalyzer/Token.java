@@ -4,7 +4,7 @@ public class Token {
     final TokenType type;
     final String lexeme;
     final Object literal;
-    final int line;
+    int line;   // moved by IncrementalLexer when lines are added above
 
     public Token(TokenType type, String lexeme, Object literal, int line) {
         this.type = type;
@@ -26,6 +26,22 @@ public class Token {
         return line;
     }
 
+    void shiftLine(int delta) {
+        line += delta;
+    }
+
+    // A token that stands in for this one with another type and text, such
+    // as the variable an escape code names. It keeps this token's line.
+    public Token renamed(TokenType type, String lexeme, Object literal) {
+        Token origin = this;
+        return new Token(type, lexeme, literal, line) {
+            @Override
+            public int getLine() {
+                return origin.getLine();
+            }
+        };
+    }
+
     @Override
     public String toString() {
         return  "type:" + type + ", value: " + lexeme + ", literal: " + literal;
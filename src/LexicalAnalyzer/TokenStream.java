@@ -0,0 +1,143 @@
+package LexicalAnalyzer;
+
+import Utils.Diagnostics;
+
+import java.util.Arrays;
+import java.util.List;
+
+// All tokens of a source in parallel arrays instead of one Token object
+// each: the type ordinal, where the lexeme starts in the source and how
+// long it is, and the line. The few literals (numbers, strings, chars) sit
+// in a side table indexed by token position. Lexemes stay in the source
+// string until asked for; token(i) builds a full Token for the parser's
+// AST names and for error messages. Identifiers are interned as they are
+// added, so every Token of a variable shares one name String and asking
+// for it again allocates nothing.
+public final class TokenStream {
+    private static final TokenType[] TYPES = TokenType.values();
+    private static final byte IDENTIFIER = (byte) TokenType.IDENTIFIER.ordinal();
+
+    private final String source;
+    private final NameTable names;
+    private byte[] types = new byte[256];
+    private int[] starts = new int[256];
+    private int[] lengths = new int[256];
+    private int[] lines = new int[256];
+    private int size = 0;
+
+    private int[] literalTokens = new int[16];   // ascending token positions
+    private Object[] literals = new Object[16];
+    private int literalCount = 0;
+
+    TokenStream(String source) {
+        this(source, new NameTable());
+    }
+
+    // Streams that share names also share the String of every identifier.
+    TokenStream(String source, NameTable names) {
+        this.source = source;
+        this.names = names;
+    }
+
+    public static TokenStream scan(String source, Diagnostics diagnostics) {
+        return new Lexer(source, diagnostics).scanInto(new TokenStream(source));
+    }
+
+    void add(TokenType type, int start, int length, int line, Object literal) {
+        if (size == types.length) {
+            int capacity = size * 2;
+            types = Arrays.copyOf(types, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            lines = Arrays.copyOf(lines, capacity);
+        }
+        if (literal != null) {
+            if (literalCount == literals.length) {
+                literalTokens = Arrays.copyOf(literalTokens, literalCount * 2);
+                literals = Arrays.copyOf(literals, literalCount * 2);
+            }
+            literalTokens[literalCount] = size;
+            literals[literalCount++] = literal;
+        }
+        if (type == TokenType.IDENTIFIER) names.intern(source, start, length);
+        types[size] = (byte) type.ordinal();
+        starts[size] = start;
+        lengths[size] = length;
+        lines[size] = line;
+        size++;
+    }
+
+    // The parts' tokens in order, as one stream, with lineShifts[i] added to
+    // every line of part i. Parts must come from the same source; the
+    // arrays are sized once and copied in bulk.
+    static TokenStream join(String source, List<TokenStream> parts, int[] lineShifts) {
+        int tokens = 1;
+        int literalTotal = 1;
+        for (TokenStream part : parts) {
+            tokens += part.size;
+            literalTotal += part.literalCount;
+        }
+        TokenStream joined = new TokenStream(source);
+        for (TokenStream part : parts) joined.names.addAll(part.names);
+        joined.types = new byte[tokens];
+        joined.starts = new int[tokens];
+        joined.lengths = new int[tokens];
+        joined.lines = new int[tokens];
+        joined.literalTokens = new int[literalTotal];
+        joined.literals = new Object[literalTotal];
+        for (int p = 0; p < parts.size(); p++) {
+            TokenStream part = parts.get(p);
+            int at = joined.size;
+            System.arraycopy(part.types, 0, joined.types, at, part.size);
+            System.arraycopy(part.starts, 0, joined.starts, at, part.size);
+            System.arraycopy(part.lengths, 0, joined.lengths, at, part.size);
+            int shift = lineShifts[p];
+            for (int i = 0; i < part.size; i++) joined.lines[at + i] = part.lines[i] + shift;
+            for (int i = 0; i < part.literalCount; i++) {
+                joined.literalTokens[joined.literalCount] = part.literalTokens[i] + at;
+                joined.literals[joined.literalCount++] = part.literals[i];
+            }
+            joined.size += part.size;
+        }
+        return joined;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public TokenType type(int index) {
+        return TYPES[types[index]];
+    }
+
+    public int line(int index) {
+        return lines[index];
+    }
+
+    int start(int index) {
+        return starts[index];
+    }
+
+    int end(int index) {
+        return starts[index] + lengths[index];
+    }
+
+    public Object literal(int index) {
+        int found = Arrays.binarySearch(literalTokens, 0, literalCount, index);
+        return found >= 0 ? literals[found] : null;
+    }
+
+    public String lexeme(int index) {
+        if (types[index] == IDENTIFIER) return names.intern(source, starts[index], lengths[index]);
+        return source.substring(starts[index], starts[index] + lengths[index]);
+    }
+
+    // Compares without building the lexeme.
+    public boolean lexemeEquals(int index, String text) {
+        return lengths[index] == text.length() && source.startsWith(text, starts[index]);
+    }
+
+    public Token token(int index) {
+        return new Token(type(index), lexeme(index), literal(index), lines[index]);
+    }
+}
@@ -1,87 +1,210 @@
 package SemanticAnalyzer;
 
 import LexicalAnalyzer.Token;
-import LexicalAnalyzer.TokenType;
 import Utils.RuntimeError;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
 public class Environment {
-    private final Map<String, Object> values = new HashMap<>();
-    private final Map<String, String> types = new HashMap<>();
+    // What a slot currently holds. UNDEFINED marks a slot the resolver handed
+    // out but no MUGNA has filled yet; BOXED covers null and any value that
+    // does not match one of the primitive kinds below.
+    private static final byte UNDEFINED = 0;
+    private static final byte BOXED = 1;
+    private static final byte NUMBER = 2;   // Integer, kept in numbers[]
+    private static final byte DECIMAL = 3;  // Float, kept in decimals[]
+    private static final byte FLAG = 4;     // Boolean, kept in flags[]
+    private static final byte LETTER = 5;   // Character, kept in letters[]
+
+    private byte[] kinds = new byte[8];
+    private int[] numbers = new int[8];
+    private float[] decimals = new float[8];
+    private boolean[] flags = new boolean[8];
+    private char[] letters = new char[8];
+    private Object[] values = new Object[8];
+    private String[] types = new String[8];
+    private String[] names = new String[8];
 
     final Environment enclosing;
 
-    Environment() {
+    public Environment() {
         enclosing = null;
     }
     Environment(Environment enclosing) {
         this.enclosing = enclosing;
     }
 
-    void define(String name, Object value) {
-        values.put(name, value);
+    public void define(int slot, String name, Object value, String type) {
+        ensureCapacity(slot);
+        store(slot, value);
+        types[slot] = type;
+        names[slot] = name;
     }
 
-    void define(String name, Object value, String type){
-        values.put(name, value);
-        types.put(name, type);
+    public Object get(Token name, int depth, int slot) {
+        Environment environment = ancestor(depth);
+        if (environment.isDefined(slot)) {
+            return environment.load(slot);
+        }
+        throw new RuntimeError(name,
+                "Undefined variable '" + name.getLexeme() + "'.");
     }
 
-    Object get(Token name) {
-        if (values.containsKey(name.getLexeme())) {
-            return values.get(name.getLexeme());
+    public void assign(Token name, int depth, int slot, Object value) {
+        Environment environment = ancestor(depth);
+        if (environment.isDefined(slot)) {
+            environment.store(slot, value);
+            return;
         }
-        if (enclosing != null) return enclosing.get(name);
         throw new RuntimeError(name,
                 "Undefined variable '" + name.getLexeme() + "'.");
     }
 
-    void assign(Token name, Object value) {
-        if (values.containsKey(name.getLexeme())) {
-            values.put(name.getLexeme(), value);
-            return;
+    // assign() and assignNumber() for a value the TypeChecker proved fits
+    // the variable, so its type is not looked at. A variable not defined
+    // yet fails the way getType() would have.
+    public void assignTyped(Token name, int depth, int slot, Object value) {
+        defined(name, depth, slot).store(slot, value);
+    }
+
+    public void assignNumberTyped(Token name, int depth, int slot, int value) {
+        Environment environment = defined(name, depth, slot);
+        environment.kinds[slot] = NUMBER;
+        environment.numbers[slot] = value;
+        environment.values[slot] = null;
+    }
+
+    private Environment defined(Token name, int depth, int slot) {
+        Environment environment = ancestor(depth);
+        if (environment.isDefined(slot)) return environment;
+        throw new RuntimeError(name,
+                "Undefined variable type '" + name.getLexeme() + "'.");
+    }
+
+    public String getType(Token name, int depth, int slot) {
+        Environment environment = ancestor(depth);
+        if (environment.isDefined(slot)) {
+            return environment.types[slot];
         }
-        if (enclosing != null) {
-            enclosing.assign(name, value);
+        throw new RuntimeError(name,
+                "Undefined variable type '" + name.getLexeme() + "'.");
+    }
+
+    // Declared type of the slot, or null while it is still undefined.
+    public String typeOf(int depth, int slot) {
+        Environment environment = ancestor(depth);
+        return environment.isDefined(slot) ? environment.types[slot] : null;
+    }
+
+    public boolean containsKey(int depth, int slot) {
+        return ancestor(depth).isDefined(slot);
+    }
+
+    // Unboxed access for the engines' hot paths. Callers check isNumber or
+    // isFlag first; the getters do not validate the slot again.
+    public boolean isNumber(int depth, int slot) {
+        Environment environment = ancestor(depth);
+        return slot >= 0 && slot < environment.kinds.length && environment.kinds[slot] == NUMBER;
+    }
+
+    public int getNumber(int depth, int slot) {
+        return ancestor(depth).numbers[slot];
+    }
+
+    public void assignNumber(Token name, int depth, int slot, int value) {
+        Environment environment = ancestor(depth);
+        if (environment.isDefined(slot)) {
+            environment.kinds[slot] = NUMBER;
+            environment.numbers[slot] = value;
+            environment.values[slot] = null;
             return;
         }
         throw new RuntimeError(name,
                 "Undefined variable '" + name.getLexeme() + "'.");
     }
 
-    String getType(String name) {
+    public boolean isFlag(int depth, int slot) {
+        Environment environment = ancestor(depth);
+        return slot >= 0 && slot < environment.kinds.length && environment.kinds[slot] == FLAG;
+    }
+
+    public boolean getFlag(int depth, int slot) {
+        return ancestor(depth).flags[slot];
+    }
+
+    private boolean isDefined(int slot) {
+        return slot >= 0 && slot < kinds.length && kinds[slot] != UNDEFINED;
+    }
 
-        if (types.containsKey(name)) {
-            return types.get(name);
+    private void store(int slot, Object value) {
+        if (value instanceof Integer i) {
+            kinds[slot] = NUMBER;
+            numbers[slot] = i;
+        } else if (value instanceof Float f) {
+            kinds[slot] = DECIMAL;
+            decimals[slot] = f;
+        } else if (value instanceof Boolean b) {
+            kinds[slot] = FLAG;
+            flags[slot] = b;
+        } else if (value instanceof Character c) {
+            kinds[slot] = LETTER;
+            letters[slot] = c;
+        } else {
+            kinds[slot] = BOXED;
+            values[slot] = value;
+            return;
         }
-        throw new RuntimeError(new Token(TokenType.IDENTIFIER, name, null, 0),
-                "Undefined variable type '" + name + "'.");
+        values[slot] = null;
+    }
+
+    private Object load(int slot) {
+        return switch (kinds[slot]) {
+            case NUMBER -> numbers[slot];
+            case DECIMAL -> decimals[slot];
+            case FLAG -> flags[slot];
+            case LETTER -> letters[slot];
+            default -> values[slot];
+        };
     }
 
+    private Environment ancestor(int depth) {
+        Environment environment = this;
+        for (int i = 0; i < depth; i++) {
+            environment = environment.enclosing;
+        }
+        return environment;
+    }
 
-    boolean containsKey(String name) {
-        return values.containsKey(name);
+    private void ensureCapacity(int slot) {
+        if (slot < kinds.length) return;
+        int size = Math.max(kinds.length * 2, slot + 1);
+        kinds = Arrays.copyOf(kinds, size);
+        numbers = Arrays.copyOf(numbers, size);
+        decimals = Arrays.copyOf(decimals, size);
+        flags = Arrays.copyOf(flags, size);
+        letters = Arrays.copyOf(letters, size);
+        values = Arrays.copyOf(values, size);
+        types = Arrays.copyOf(types, size);
+        names = Arrays.copyOf(names, size);
     }
 
     public void printTypes() {
-        if(types.isEmpty()) {
-            System.out.println("No types defined.");
-            return;
-        }
-        for (Map.Entry<String, String> entry : types.entrySet()) {
-            System.out.println("Variable: " + entry.getKey() + ", Type: " + entry.getValue());
+        boolean empty = true;
+        for (int i = 0; i < kinds.length; i++) {
+            if (kinds[i] == UNDEFINED) continue;
+            System.out.println("Variable: " + names[i] + ", Type: " + types[i]);
+            empty = false;
         }
+        if (empty) System.out.println("No types defined.");
     }
 
     public void printValues() {
-        if(values.isEmpty()) {
-            System.out.println("No values defined.");
-            return;
-        }
-        for (Map.Entry<String, Object> entry : values.entrySet()) {
-            System.out.println("Variable: " + entry.getKey() + ", Type: " + entry.getValue().toString());
+        boolean empty = true;
+        for (int i = 0; i < kinds.length; i++) {
+            if (kinds[i] == UNDEFINED) continue;
+            System.out.println("Variable: " + names[i] + ", Type: " + load(i));
+            empty = false;
         }
+        if (empty) System.out.println("No values defined.");
     }
-}
\ No newline at end of file
+}
@@ -3,17 +3,66 @@
 package SemanticAnalyzer;
 
 import java.util.List;
-import java.util.Scanner;
 
 import LexicalAnalyzer.Token;
 import LexicalAnalyzer.TokenType;
 import SyntaxAnalyzer.Expr;
 import SyntaxAnalyzer.Stmt;
+import Utils.Budget;
+import Utils.Diagnostics;
+import Utils.Input;
+import Utils.Limits;
+import Utils.Output;
 import Utils.RuntimeError;
-import LexicalAnalyzer.Lox;
 
 public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
     private Environment environment = new Environment();
+    private final Output output;
+    private final Input input;
+    private final Diagnostics diagnostics;
+    private final Limits limits;
+    private Budget budget;
+    // Statements executed so far, checked against the budget at loop back-edges.
+    private long steps = 0;
+    private int depth = 0;
+    private int maxDepth = 0;
+    private Profiler profiler = null;
+
+    public Interpreter() {
+        this(Output.standard());
+    }
+
+    public Interpreter(Output output) {
+        this(output, Input.standard(), Diagnostics.printing());
+    }
+
+    // Everything a run reads from or reports to is passed in, so separate
+    // instances can run on separate threads.
+    public Interpreter(Output output, Input input, Diagnostics diagnostics) {
+        this(output, input, diagnostics, Limits.NONE);
+    }
+
+    public Interpreter(Output output, Input input, Diagnostics diagnostics, Limits limits) {
+        this.output = output;
+        this.input = input;
+        this.diagnostics = diagnostics;
+        this.limits = limits;
+    }
+
+    // Records every statement this interpreter runs from now on.
+    public void setProfiler(Profiler profiler) {
+        this.profiler = profiler;
+    }
+
+    public long statementsExecuted() {
+        return steps;
+    }
+
+    // How deeply SUGOD and PUNDOK blocks nested while running. They share
+    // one Environment, so this is the depth of the program, not of scopes.
+    public int maxBlockDepth() {
+        return maxDepth;
+    }
 
     @Override
     public Object visitLiteralExpr(Expr.Literal expr) {
@@ -26,83 +75,235 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
     }
 
     private Object evaluate(Expr expr) {
-        return expr == null ? null : expr.accept(this);
+        if (expr == null) return null;
+        Object value = expr.accept(this);
+        // Literals hand out the value stored in the tree; anything else
+        // that comes back as an Integer or Float was boxed just now.
+        if (profiler != null && (value instanceof Integer || value instanceof Float) && !(expr instanceof Expr.Literal)) {
+            profiler.boxed();
+        }
+        return value;
     }
 
     @Override
     public Void visitExpressionStmt(Stmt.Expression stmt) {
-        if (stmt.expression instanceof Expr.Variable varExpr && !environment.containsKey(varExpr.name.getLexeme())) {
+        if (stmt.expression instanceof Expr.Variable varExpr && !environment.containsKey(varExpr.depth, varExpr.slot)) {
             throw new RuntimeError(varExpr.name, "Undefined variable: " + varExpr.name.getLexeme());
         }
+        // The value of an assignment statement is discarded, so a NUMERO
+        // target can be updated in place without boxing the result.
+        if (stmt.expression instanceof Expr.Assign assign && assignNumber(assign)) {
+            return null;
+        }
         evaluate(stmt.expression);
         return null;
     }
 
+    private boolean assignNumber(Expr.Assign expr) {
+        boolean typed = expr.checked && "NUMERO".equals(expr.value.type);
+        if (!typed && !"NUMERO".equals(environment.typeOf(expr.depth, expr.slot))) return false;
+
+        int delta = stepOf(expr);
+        if (delta != 0) {
+            if (!environment.isNumber(expr.depth, expr.slot)) return false;
+            environment.assignNumber(expr.name, expr.depth, expr.slot,
+                    environment.getNumber(expr.depth, expr.slot) + delta);
+            return true;
+        }
+
+        int value;
+        try {
+            value = evaluateNumber(expr.value);
+        } catch (NotANumber notANumber) {
+            assignChecked(expr, notANumber.value);
+            return true;
+        }
+        if (typed) {
+            environment.assignNumberTyped(expr.name, expr.depth, expr.slot, value);
+        } else {
+            environment.assignNumber(expr.name, expr.depth, expr.slot, value);
+        }
+        return true;
+    }
+
     @Override
     public Object visitLogicalExpr(Expr.Logical expr) {
         Object left = evaluate(expr.left);
         return switch (expr.operator.getTokenType()) {
-            case OR -> isTruthy(left) ? left : evaluate(expr.right);
-            default -> !isTruthy(left) ? left : evaluate(expr.right);
+            case OR -> Values.isTruthy(left) ? left : evaluate(expr.right);
+            default -> !Values.isTruthy(left) ? left : evaluate(expr.right);
         };
     }
 
+    // +1 or -1 when the assignment is the x++ the parser builds for x, else 0.
+    private int stepOf(Expr.Assign expr) {
+        if (expr.value instanceof Expr.Increment increment
+                && increment.depth == expr.depth && increment.slot == expr.slot) return 1;
+        if (expr.value instanceof Expr.Decrement decrement
+                && decrement.depth == expr.depth && decrement.slot == expr.slot) return -1;
+        return 0;
+    }
+
     @Override
     public Void visitWhileStmt(Stmt.While stmt) {
-        while (isTruthy(evaluate(stmt.condition))) execute(stmt.body);
+        while (evaluateCondition(stmt.condition)) {
+            execute(stmt.body);
+            budget.check(steps, stmt.keyword);
+        }
         return null;
     }
 
     @Override
     public Void visitIfStmt(Stmt.If stmt) {
-        execute(isTruthy(evaluate(stmt.condition)) ? stmt.thenBranch : stmt.elseBranch);
+        execute(evaluateCondition(stmt.condition) ? stmt.thenBranch : stmt.elseBranch);
         return null;
     }
 
+    // Same result as isTruthy(evaluate(expr)), but comparisons, UG/O and
+    // TINUOD variables are decided without boxing a Boolean.
+    private boolean evaluateCondition(Expr expr) {
+        if (expr instanceof Expr.Binary binary) {
+            switch (binary.operator.getTokenType()) {
+                case GREATER_THAN, GREATER_EQUAL, LESS_THAN, LESS_EQUAL -> {
+                    return compare(binary);
+                }
+                default -> {
+                }
+            }
+        } else if (expr instanceof Expr.Logical logical) {
+            return logical.operator.getTokenType() == TokenType.OR
+                    ? evaluateCondition(logical.left) || evaluateCondition(logical.right)
+                    : evaluateCondition(logical.left) && evaluateCondition(logical.right);
+        } else if (expr instanceof Expr.Grouping grouping) {
+            return evaluateCondition(grouping.expression);
+        } else if (expr instanceof Expr.Variable variable && environment.isFlag(variable.depth, variable.slot)) {
+            return environment.getFlag(variable.depth, variable.slot);
+        }
+        return Values.isTruthy(evaluate(expr));
+    }
+
+    // Thrown by evaluateNumber when a value is not a NUMERO. It carries the
+    // value that was already evaluated (a TIPIK result, say) so callers can
+    // go on with it on the boxed path without evaluating anything twice.
+    private static final class NotANumber extends RuntimeException {
+        final Object value;
+
+        NotANumber(Object value) {
+            super(null, null, false, false);
+            this.value = value;
+        }
+    }
+
+    // Evaluates an expression expected to be a NUMERO, keeping arithmetic on
+    // unboxed ints all the way down.
+    private int evaluateNumber(Expr expr) {
+        if (expr instanceof Expr.Literal literal) {
+            if (literal.value instanceof Integer i) return i;
+            throw new NotANumber(literal.value);
+        }
+        if (expr instanceof Expr.Variable variable && environment.isNumber(variable.depth, variable.slot)) {
+            return environment.getNumber(variable.depth, variable.slot);
+        }
+        if (expr instanceof Expr.Grouping grouping) {
+            return evaluateNumber(grouping.expression);
+        }
+        if (expr instanceof Expr.Binary binary) {
+            switch (binary.operator.getTokenType()) {
+                case MINUS, DIVIDE, MULTIPLY, PLUS, MODULO -> {
+                    return arithmetic(binary);
+                }
+                default -> {
+                }
+            }
+        }
+        if (expr instanceof Expr.Unary unary && unary.operator.getTokenType() == TokenType.MINUS) {
+            return negate(unary);
+        }
+        Object value = evaluate(expr);
+        if (value instanceof Integer i) return i;
+        throw new NotANumber(value);
+    }
+
+    // NUMERO arithmetic on ints. Anything else, TIPIK included, goes through
+    // Values.arithmetic and leaves as a NotANumber with the result.
+    private int arithmetic(Expr.Binary expr) {
+        int left;
+        int right;
+        try {
+            left = evaluateNumber(expr.left);
+        } catch (NotANumber notANumber) {
+            Object rightValue = evaluate(expr.right);
+            throw new NotANumber(Values.arithmetic(expr.operator, notANumber.value, rightValue));
+        }
+        try {
+            right = evaluateNumber(expr.right);
+        } catch (NotANumber notANumber) {
+            throw new NotANumber(Values.arithmetic(expr.operator, left, notANumber.value));
+        }
+        return Values.arithmetic(expr.operator, left, right);
+    }
+
+    private int negate(Expr.Unary expr) {
+        try {
+            return -evaluateNumber(expr.right);
+        } catch (NotANumber notANumber) {
+            throw new NotANumber(Values.negate(expr.operator, notANumber.value));
+        }
+    }
+
+    private boolean compare(Expr.Binary expr) {
+        int left;
+        int right;
+        try {
+            left = evaluateNumber(expr.left);
+        } catch (NotANumber notANumber) {
+            Object rightValue = evaluate(expr.right);
+            return Values.compare(expr.operator, notANumber.value, rightValue);
+        }
+        try {
+            right = evaluateNumber(expr.right);
+        } catch (NotANumber notANumber) {
+            return Values.compare(expr.operator, left, notANumber.value);
+        }
+        return compare(expr.operator, left, right);
+    }
+
+    private boolean compare(Token operator, int left, int right) {
+        return switch (operator.getTokenType()) {
+            case GREATER_THAN -> left > right;
+            case GREATER_EQUAL -> left >= right;
+            case LESS_THAN -> left < right;
+            default -> left <= right;
+        };
+    }
+
     @Override
     public Void visitPrintStmt(Stmt.Print stmt) {
-        System.out.println(stringify(evaluate(stmt.expression)));
+        Object value = evaluate(stmt.expression);
+        output.println(value instanceof Text text ? text : Values.stringify(value));
         return null;
     }
 
     @Override
     public Void visitInputStmt(Stmt.Input inputStmt) {
-        Scanner scanner = new Scanner(System.in);
-        for (Token varName : inputStmt.getVariableNames()) {
-            System.out.print("Enter value for " + varName.getLexeme() + ": ");
-            String inputValue = scanner.nextLine().replace("\"", "");
-            String type = environment.getType(varName.getLexeme());
-
-            if (type == null) throw new RuntimeError(varName, "Variable type is undefined.");
-
-            try {
-                switch (type) {
-                    case "NUMERO", "TIPIK" -> environment.assign(varName, Double.parseDouble(inputValue));
-                    case "TINUOD" -> environment.assign(varName, inputValue.equalsIgnoreCase("OO"));
-                    case "LETRA" -> {
-                        if (inputValue.length() != 1)
-                            throw new RuntimeError(varName, "Expected a single character.");
-                        environment.assign(varName, inputValue.charAt(0));
-                    }
-                    default -> throw new RuntimeError(varName, "Unsupported type: " + type);
-                }
-            } catch (NumberFormatException e) {
-                throw new RuntimeError(varName, "Invalid input for type " + type + ": " + inputValue);
-            }
+        List<Token> varNames = inputStmt.getVariableNames();
+        for (int i = 0; i < varNames.size(); i++) {
+            Token varName = varNames.get(i);
+            int depth = inputStmt.depths[i];
+            int slot = inputStmt.slots[i];
+            output.print("Enter value for " + varName.getLexeme() + ": ");
+            output.flush();
+            String inputValue = input.nextValue(varName);
+            String type = environment.getType(varName, depth, slot);
+            environment.assign(varName, depth, slot, Values.parseInput(varName, type, inputValue));
         }
         return null;
     }
 
     @Override
     public Void visitVarStmt(Stmt.Var stmt) {
-        Object value = stmt.initializer != null ? evaluate(stmt.initializer) : switch (stmt.getType()) {
-            case "NUMERO" -> 0.0;
-            case "TIPIK" -> 0.0f;
-            case "TINUOD" -> false;
-            case "LETRA" -> '\0';
-            default -> throw new RuntimeError(stmt.name, "Unsupported type: " + stmt.getType());
-        };
-        environment.define(stmt.name.getLexeme(), value, stmt.getType());
+        Object value = stmt.initializer != null ? evaluate(stmt.initializer) : Values.defaultValue(stmt.name, stmt.getType());
+        environment.define(stmt.slot, stmt.name.getLexeme(), value, stmt.getType());
         return null;
     }
 
@@ -110,103 +311,105 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
     public Void visitVarDeclaration(Stmt.VarDeclaration stmt) {
         for (Stmt.Var var : stmt.variables) {
             Object value = var.initializer != null ? evaluate(var.initializer) : null;
-            if (value != null && !isTypeCompatible(var.getType(), value)) {
+            if (!var.checked && value != null && !Values.isTypeCompatible(var.getType(), value)) {
                 throw new RuntimeError(var.name, "Variable " + var.name.getLexeme() + " must be of type " + var.getType() + ".");
             }
-            environment.define(var.name.getLexeme(), value, var.getType());
+            environment.define(var.slot, var.name.getLexeme(), value, var.getType());
         }
         return null;
     }
 
-    private boolean isTypeCompatible(String type, Object value) {
-        return switch (type) {
-            case "NUMERO" -> value instanceof Double;
-            case "TIPIK" -> value instanceof Float;
-            case "LETRA" -> value instanceof Character;
-            case "TINUOD" -> value instanceof Boolean;
-            default -> false;
-        };
-    }
-
     @Override
     public Object visitAssignExpr(Expr.Assign expr) {
         Object value = evaluate(expr.value);
-        String type = environment.getType(expr.name.getLexeme());
-        if (value != null && !isTypeCompatible(type, value)) {
+        assignChecked(expr, value);
+        return value;
+    }
+
+    private void assignChecked(Expr.Assign expr, Object value) {
+        if (expr.checked) {
+            environment.assignTyped(expr.name, expr.depth, expr.slot, value);
+            return;
+        }
+        String type = environment.getType(expr.name, expr.depth, expr.slot);
+        if (value != null && !Values.isTypeCompatible(type, value)) {
             throw new RuntimeError(expr.name, "Expected " + type + " for assignment.");
         }
-        environment.assign(expr.name, value);
-        return value;
+        environment.assign(expr.name, expr.depth, expr.slot, value);
     }
 
     @Override
     public Object visitUnaryExpr(Expr.Unary expr) {
+        if (expr.operator.getTokenType() == TokenType.MINUS) {
+            try {
+                return negate(expr);
+            } catch (NotANumber notANumber) {
+                return notANumber.value;
+            }
+        }
         Object right = evaluate(expr.right);
         return switch (expr.operator.getTokenType()) {
-            case MINUS -> {
-                checkNumberOperand(expr.operator, right);
-                yield -(double) right;
-            }
-            case NOT -> !isTruthy(right);
+            case NOT -> !Values.isTruthy(right);
             default -> null;
         };
     }
 
     @Override
     public Object visitVariableExpr(Expr.Variable expr) {
-        return environment.get(expr.name);
-    }
-
-    private boolean isTruthy(Object object) {
-        return object instanceof Boolean ? (boolean) object : object != null;
+        return environment.get(expr.name, expr.depth, expr.slot);
     }
 
     @Override
     public Object visitBinaryExpr(Expr.Binary expr) {
+        switch (expr.operator.getTokenType()) {
+            case MINUS, DIVIDE, MULTIPLY, PLUS, MODULO -> {
+                // The TypeChecker's TIPIK goes straight to the float path.
+                if ("TIPIK".equals(expr.type)) {
+                    return Values.arithmetic(expr.operator, evaluate(expr.left), evaluate(expr.right));
+                }
+                try {
+                    return arithmetic(expr);
+                } catch (NotANumber notANumber) {
+                    return notANumber.value;
+                }
+            }
+            case GREATER_THAN, GREATER_EQUAL, LESS_THAN, LESS_EQUAL -> {
+                return compare(expr);
+            }
+            default -> {
+            }
+        }
         Object left = evaluate(expr.left);
         Object right = evaluate(expr.right);
         return switch (expr.operator.getTokenType()) {
-            case MINUS, DIVIDE, MULTIPLY, PLUS -> applyArithmetic(expr.operator, left, right);
-            case GREATER_THAN -> (double) left > (double) right;
-            case GREATER_EQUAL -> (double) left >= (double) right;
-            case LESS_THAN -> (double) left < (double) right;
-            case LESS_EQUAL -> (double) left <= (double) right;
-            case EQUALS -> isEqual(left, right);
-            case NOT_EQUALS -> !isEqual(left, right);
-            case CONCAT -> stringify(left) + stringify(right);
-            case NEXT_LINE -> stringify(left) + "\n" + stringify(right);
-            default -> null;
-        };
-    }
-
-    private Object applyArithmetic(Token operator, Object left, Object right) {
-        checkNumberOperands(operator, left, right);
-        return switch (operator.getTokenType()) {
-            case MINUS -> (double) left - (double) right;
-            case DIVIDE -> (double) left / (double) right;
-            case MULTIPLY -> (double) left * (double) right;
-            case PLUS -> (left instanceof Double && right instanceof Double) ?
-                (double) left + (double) right :
-                stringify(left) + stringify(right);
+            case EQUALS -> Values.isEqual(left, right);
+            case NOT_EQUALS -> !Values.isEqual(left, right);
+            case CONCAT -> Text.concat(left, right, false);
+            case NEXT_LINE -> Text.concat(left, right, true);
             default -> null;
         };
     }
 
     @Override
     public Object visitIncrementExpr(Expr.Increment expr) {
-        return applyIncrementDecrement(expr.name, 1);
+        return applyIncrementDecrement(expr.name, expr.depth, expr.slot, 1);
     }
 
     @Override
     public Object visitDecrementExpr(Expr.Decrement expr) {
-        return applyIncrementDecrement(expr.name, -1);
+        return applyIncrementDecrement(expr.name, expr.depth, expr.slot, -1);
     }
 
-    private Object applyIncrementDecrement(Token name, int delta) {
-        Object value = environment.get(name);
-        if (value instanceof Double num) {
-            double result = num + delta;
-            environment.assign(name, result);
+    private Object applyIncrementDecrement(Token name, int depth, int slot, int delta) {
+        if (environment.isNumber(depth, slot)) {
+            int result = environment.getNumber(depth, slot) + delta;
+            environment.assignNumber(name, depth, slot, result);
+            return result;
+        }
+        Object value = environment.get(name, depth, slot);
+        if (value instanceof Integer num) {
+            int result = num + delta;
+            environment.assign(name, depth, slot, result);
             return result;
         }
         throw new RuntimeError(name, "Only numbers can be incremented or decremented.");
@@ -218,49 +421,44 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
         return null;
     }
 
-    private boolean isEqual(Object a, Object b) {
-        return a == null ? b == null : a.equals(b);
-    }
-
-    private String stringify(Object object) {
-        if (object == null) return "null";
-        if (object instanceof Boolean b) return b ? "OO" : "DILI";
-        if (object instanceof Double d) {
-            String text = d.toString();
-            return text.endsWith(".0") ? text.substring(0, text.length() - 2) : text;
-        }
-        return object.toString();
-    }
-
-    private void checkNumberOperand(Token operator, Object operand) {
-        if (!(operand instanceof Double)) throw new RuntimeError(operator, "Operand must be a number.");
-    }
-
-    private void checkNumberOperands(Token operator, Object left, Object right) {
-        if (!(left instanceof Double) || !(right instanceof Double)) {
-            throw new RuntimeError(operator, "Operands must be numbers.");
-        }
-    }
-
     public void interpret(List<Stmt> statements) {
+        budget = limits.start();
         try {
             for (Stmt statement : statements) execute(statement);
         } catch (RuntimeError error) {
-            Lox.runtimeError(error);
+            output.flush();
+            diagnostics.runtimeError(error);
+        } finally {
+            output.flush();
         }
     }
 
     private void execute(Stmt stmt) {
-        if (stmt != null) stmt.accept(this);
+        if (stmt == null) return;
+        steps++;
+        if (profiler == null) {
+            stmt.accept(this);
+            return;
+        }
+        profiler.enter(stmt);
+        try {
+            stmt.accept(this);
+        } finally {
+            profiler.exit();
+        }
     }
 
     public void executeBlock(List<Stmt> statements, Environment blockEnvironment) {
         Environment previous = this.environment;
+        if (++depth > maxDepth) maxDepth = depth;
         try {
             this.environment = blockEnvironment;
-            for (Stmt statement : statements) execute(statement);
+            // Indexed loop: blocks come as both ArrayList and Arrays.asList,
+            // and the polymorphic iterator() call would allocate per pass.
+            for (int i = 0; i < statements.size(); i++) execute(statements.get(i));
         } finally {
             this.environment = previous;
+            depth--;
         }
     }
 
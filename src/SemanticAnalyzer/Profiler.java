@@ -0,0 +1,170 @@
+package SemanticAnalyzer;
+
+import LexicalAnalyzer.Token;
+import SyntaxAnalyzer.Expr;
+import SyntaxAnalyzer.Stmt;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Per-statement execution profile for one Interpreter run: how often each
+// statement ran, the time spent in it (with and without the statements it
+// contains) and how many Integer/Float boxes its expressions produced.
+//
+// Statements nest but never recurse, so each call-tree frame is active at
+// most once and keeps its own start time; nothing is allocated per
+// statement once the tree has been seen. SUGOD and PUNDOK take the line of
+// their first statement; a statement with no token at all (a bare literal)
+// takes the line of the one around it.
+public final class Profiler {
+    private static final class Entry {
+        final String label;
+        final int line;
+        long count = 0;
+        long totalNanos = 0;
+        long selfNanos = 0;
+        long boxed = 0;
+
+        Entry(String label, int line) {
+            this.label = label;
+            this.line = line;
+        }
+
+        String name() {
+            return label + ":" + line;
+        }
+    }
+
+    private static final class Frame {
+        final Entry entry;
+        final Frame parent;
+        final Map<Stmt, Frame> children = new IdentityHashMap<>();
+        long start;
+        long childNanos;
+        long selfNanos = 0;
+
+        Frame(Entry entry, Frame parent) {
+            this.entry = entry;
+            this.parent = parent;
+        }
+    }
+
+    private final Map<Stmt, Entry> entries = new IdentityHashMap<>();
+    private final Frame root = new Frame(null, null);
+    private Frame current = root;
+
+    void enter(Stmt stmt) {
+        Frame frame = current.children.get(stmt);
+        if (frame == null) {
+            frame = new Frame(entryFor(stmt), current);
+            current.children.put(stmt, frame);
+        }
+        current = frame;
+        frame.childNanos = 0;
+        frame.start = System.nanoTime();
+    }
+
+    void exit() {
+        Frame frame = current;
+        long elapsed = System.nanoTime() - frame.start;
+        long self = elapsed - frame.childNanos;
+        Entry entry = frame.entry;
+        entry.count++;
+        entry.totalNanos += elapsed;
+        entry.selfNanos += self;
+        frame.selfNanos += self;
+        current = frame.parent;
+        current.childNanos += elapsed;
+    }
+
+    // A NUMERO or TIPIK value was boxed by the statement running now.
+    void boxed() {
+        if (current.entry != null) current.entry.boxed++;
+    }
+
+    private Entry entryFor(Stmt stmt) {
+        Entry entry = entries.get(stmt);
+        if (entry == null) {
+            Token token = firstToken(stmt);
+            int line = token != null ? token.getLine() : current.entry != null ? current.entry.line : 0;
+            entry = new Entry(label(stmt), line);
+            entries.put(stmt, entry);
+        }
+        return entry;
+    }
+
+    // One row per statement, hottest (by self time) first.
+    public void report(PrintWriter out) {
+        List<Entry> rows = new ArrayList<>(entries.values());
+        rows.sort(Comparator.comparingLong((Entry entry) -> entry.selfNanos).reversed());
+        out.printf("%6s  %-12s %12s %12s %12s %12s%n", "line", "statement", "count", "total ms", "self ms", "boxed");
+        for (Entry entry : rows) {
+            out.printf("%6d  %-12s %12d %12.3f %12.3f %12d%n", entry.line, entry.label, entry.count,
+                    entry.totalNanos / 1e6, entry.selfNanos / 1e6, entry.boxed);
+        }
+        out.flush();
+    }
+
+    // Collapsed stacks as read by flamegraph.pl and speedscope: one
+    // `SUGOD:1;ALANG SA:3;IPAKITA:5 <self nanoseconds>` line per path.
+    public void writeCollapsed(PrintWriter out) {
+        for (Frame child : root.children.values()) writeCollapsed(child, "", out);
+        out.flush();
+    }
+
+    private void writeCollapsed(Frame frame, String prefix, PrintWriter out) {
+        String path = prefix.isEmpty() ? frame.entry.name() : prefix + ";" + frame.entry.name();
+        if (frame.selfNanos > 0) out.println(path + " " + frame.selfNanos);
+        for (Frame child : frame.children.values()) writeCollapsed(child, path, out);
+    }
+
+    private static String label(Stmt stmt) {
+        if (stmt instanceof Stmt.Sugod) return "SUGOD";
+        if (stmt instanceof Stmt.Block) return "PUNDOK";
+        if (stmt instanceof Stmt.While) return "ALANG SA";
+        if (stmt instanceof Stmt.If) return "KUNG";
+        if (stmt instanceof Stmt.Print) return "IPAKITA";
+        if (stmt instanceof Stmt.Input) return "DAWAT";
+        if (stmt instanceof Stmt.Var || stmt instanceof Stmt.VarDeclaration) return "MUGNA";
+        return "expression";
+    }
+
+    private static Token firstToken(Stmt stmt) {
+        if (stmt instanceof Stmt.While loop) return loop.keyword;
+        if (stmt instanceof Stmt.If branch) return firstToken(branch.condition);
+        if (stmt instanceof Stmt.Print print) return firstToken(print.expression);
+        if (stmt instanceof Stmt.Expression expression) return firstToken(expression.expression);
+        if (stmt instanceof Stmt.Var var) return var.name;
+        if (stmt instanceof Stmt.VarDeclaration declaration && !declaration.variables.isEmpty()) {
+            return declaration.variables.get(0).name;
+        }
+        if (stmt instanceof Stmt.Input input && !input.getVariableNames().isEmpty()) {
+            return input.getVariableNames().get(0);
+        }
+        if (stmt instanceof Stmt.Block block && !block.statements.isEmpty()) return firstToken(block.statements.get(0));
+        if (stmt instanceof Stmt.Sugod sugod && !sugod.statements.isEmpty()) return firstToken(sugod.statements.get(0));
+        return null;
+    }
+
+    private static Token firstToken(Expr expr) {
+        if (expr instanceof Expr.Binary binary) {
+            Token left = firstToken(binary.left);
+            return left != null ? left : binary.operator;
+        }
+        if (expr instanceof Expr.Logical logical) {
+            Token left = firstToken(logical.left);
+            return left != null ? left : logical.operator;
+        }
+        if (expr instanceof Expr.Grouping grouping) return firstToken(grouping.expression);
+        if (expr instanceof Expr.Unary unary) return unary.operator;
+        if (expr instanceof Expr.Variable variable) return variable.name;
+        if (expr instanceof Expr.Assign assign) return assign.name;
+        if (expr instanceof Expr.Increment increment) return increment.name;
+        if (expr instanceof Expr.Decrement decrement) return decrement.name;
+        return null;
+    }
+}
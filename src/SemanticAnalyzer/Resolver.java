@@ -0,0 +1,181 @@
+package SemanticAnalyzer;
+
+import LexicalAnalyzer.Token;
+import SyntaxAnalyzer.Expr;
+import SyntaxAnalyzer.Stmt;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Runs between Parser.parse() and Interpreter.interpret() and gives every
+// variable reference a (depth, slot) address into the Environment chain,
+// so the interpreter never has to look a name up at runtime.
+public class Resolver implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
+    // SUGOD and PUNDOK bodies run in the same Environment, so they share one
+    // scope here as well. A Resolver is made for each program, and every run
+    // of it starts from a new, empty Environment.
+    private final List<Map<String, Integer>> scopes = new ArrayList<>();
+
+    public Resolver() {
+        scopes.add(new HashMap<>());
+    }
+
+    public void resolve(List<Stmt> statements) {
+        for (Stmt statement : statements) resolve(statement);
+    }
+
+    private void resolve(Stmt stmt) {
+        if (stmt != null) stmt.accept(this);
+    }
+
+    private void resolve(Expr expr) {
+        if (expr != null) expr.accept(this);
+    }
+
+    private int declare(Token name) {
+        Map<String, Integer> scope = scopes.get(scopes.size() - 1);
+        return scope.computeIfAbsent(name.getLexeme(), k -> scope.size());
+    }
+
+    // Returns the depth of the scope holding the name, or 0 after giving it a
+    // slot in the innermost scope. A name used before (or without) its MUGNA
+    // still gets a slot; the Environment reports it as undefined until a
+    // declaration actually fills it, same as the old name lookup did.
+    private int depthOf(Token name) {
+        for (int i = scopes.size() - 1; i >= 0; i--) {
+            if (scopes.get(i).containsKey(name.getLexeme())) {
+                return scopes.size() - 1 - i;
+            }
+        }
+        declare(name);
+        return 0;
+    }
+
+    private int slotOf(Token name, int depth) {
+        return scopes.get(scopes.size() - 1 - depth).get(name.getLexeme());
+    }
+
+    @Override
+    public Void visitBlockStmt(Stmt.Block stmt) {
+        resolve(stmt.statements);
+        return null;
+    }
+
+    @Override
+    public Void visitSugodStmt(Stmt.Sugod stmt) {
+        resolve(stmt.statements);
+        return null;
+    }
+
+    @Override
+    public Void visitExpressionStmt(Stmt.Expression stmt) {
+        resolve(stmt.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitPrintStmt(Stmt.Print stmt) {
+        resolve(stmt.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitVarStmt(Stmt.Var stmt) {
+        resolve(stmt.initializer);
+        stmt.slot = declare(stmt.name);
+        return null;
+    }
+
+    @Override
+    public Void visitVarDeclaration(Stmt.VarDeclaration stmt) {
+        for (Stmt.Var var : stmt.variables) visitVarStmt(var);
+        return null;
+    }
+
+    @Override
+    public Void visitIfStmt(Stmt.If stmt) {
+        resolve(stmt.condition);
+        resolve(stmt.thenBranch);
+        resolve(stmt.elseBranch);
+        return null;
+    }
+
+    @Override
+    public Void visitWhileStmt(Stmt.While stmt) {
+        resolve(stmt.condition);
+        resolve(stmt.body);
+        return null;
+    }
+
+    @Override
+    public Void visitInputStmt(Stmt.Input stmt) {
+        List<Token> names = stmt.getVariableNames();
+        for (int i = 0; i < names.size(); i++) {
+            stmt.depths[i] = depthOf(names.get(i));
+            stmt.slots[i] = slotOf(names.get(i), stmt.depths[i]);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitBinaryExpr(Expr.Binary expr) {
+        resolve(expr.left);
+        resolve(expr.right);
+        return null;
+    }
+
+    @Override
+    public Void visitGroupingExpr(Expr.Grouping expr) {
+        resolve(expr.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitLiteralExpr(Expr.Literal expr) {
+        return null;
+    }
+
+    @Override
+    public Void visitUnaryExpr(Expr.Unary expr) {
+        resolve(expr.right);
+        return null;
+    }
+
+    @Override
+    public Void visitLogicalExpr(Expr.Logical expr) {
+        resolve(expr.left);
+        resolve(expr.right);
+        return null;
+    }
+
+    @Override
+    public Void visitVariableExpr(Expr.Variable expr) {
+        expr.depth = depthOf(expr.name);
+        expr.slot = slotOf(expr.name, expr.depth);
+        return null;
+    }
+
+    @Override
+    public Void visitAssignExpr(Expr.Assign expr) {
+        resolve(expr.value);
+        expr.depth = depthOf(expr.name);
+        expr.slot = slotOf(expr.name, expr.depth);
+        return null;
+    }
+
+    @Override
+    public Void visitIncrementExpr(Expr.Increment expr) {
+        expr.depth = depthOf(expr.name);
+        expr.slot = slotOf(expr.name, expr.depth);
+        return null;
+    }
+
+    @Override
+    public Void visitDecrementExpr(Expr.Decrement expr) {
+        expr.depth = depthOf(expr.name);
+        expr.slot = slotOf(expr.name, expr.depth);
+        return null;
+    }
+}
@@ -0,0 +1,63 @@
+package SemanticAnalyzer;
+
+// String value produced by & and $. A Text is the first `length` chars of a
+// StringBuilder that is only ever appended to, so concatenating onto the
+// newest Text of a chain extends the same builder in place instead of
+// copying everything built so far: a & b & c & ... is linear overall.
+// Earlier Texts over the same builder stay valid because their prefix
+// never changes. The String is only built when the value is printed,
+// compared or otherwise needs one.
+public final class Text implements CharSequence {
+    private final StringBuilder builder;
+    private final int length;
+    private String flat;
+
+    private Text(StringBuilder builder) {
+        this.builder = builder;
+        this.length = builder.length();
+    }
+
+    // left & right, or left $ right when newline is set.
+    public static Text concat(Object left, Object right, boolean newline) {
+        StringBuilder builder;
+        if (left instanceof Text text && text.length == text.builder.length()) {
+            builder = text.builder;
+        } else {
+            builder = new StringBuilder();
+            Values.appendTo(builder, left);
+        }
+        if (newline) builder.append('\n');
+        if (right instanceof Text text && text.builder == builder) {
+            builder.append(text.toString());
+        } else {
+            Values.appendTo(builder, right);
+        }
+        return new Text(builder);
+    }
+
+    void appendTo(StringBuilder target) {
+        target.append(builder, 0, length);
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index >= length) throw new IndexOutOfBoundsException(index);
+        return builder.charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        if (flat == null) flat = builder.substring(0, length);
+        return flat;
+    }
+}
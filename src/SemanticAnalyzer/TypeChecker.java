@@ -0,0 +1,253 @@
+package SemanticAnalyzer;
+
+import LexicalAnalyzer.Token;
+import SyntaxAnalyzer.Expr;
+import SyntaxAnalyzer.Stmt;
+import Utils.Diagnostics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Runs after the Resolver and types every expression from the MUGNA
+// declarations, before anything runs. What is sure to fail at runtime is
+// reported as an error instead: assigning a value of the wrong type,
+// arithmetic or comparison on a non-number, ++ on a non-NUMERO. Assignments
+// and declarations it proves right are marked checked, and the engines then
+// store without looking at the variable's type.
+//
+// A variable holds its declared type or null. A slot declared with
+// different types makes it unknown here (SUGOD and PUNDOK share one scope,
+// so two MUGNA of one name share a slot).
+public class TypeChecker implements Expr.Visitor<String>, Stmt.Visitor<Void> {
+    static final String NUMERO = "NUMERO";
+    static final String TIPIK = "TIPIK";
+    static final String LETRA = "LETRA";
+    static final String TINUOD = "TINUOD";
+    static final String TEXT = "TEXT";
+
+    private static final String CONFLICT = "CONFLICT";
+
+    private final Diagnostics diagnostics;
+    private final List<String> declared = new ArrayList<>();   // by slot
+
+    public TypeChecker(Diagnostics diagnostics) {
+        this.diagnostics = diagnostics;
+    }
+
+    public void check(List<Stmt> statements) {
+        for (Stmt statement : statements) declare(statement);
+        for (Stmt statement : statements) check(statement);
+    }
+
+    // Declarations are statements, so this walks statements only.
+    private void declare(Stmt stmt) {
+        if (stmt instanceof Stmt.VarDeclaration declaration) {
+            for (Stmt.Var var : declaration.variables) declare(var.slot, var.getType());
+        } else if (stmt instanceof Stmt.Var var) {
+            declare(var.slot, var.getType());
+        } else if (stmt instanceof Stmt.Block block) {
+            for (Stmt statement : block.statements) declare(statement);
+        } else if (stmt instanceof Stmt.Sugod sugod) {
+            for (Stmt statement : sugod.statements) declare(statement);
+        } else if (stmt instanceof Stmt.If branch) {
+            declare(branch.thenBranch);
+            declare(branch.elseBranch);
+        } else if (stmt instanceof Stmt.While loop) {
+            declare(loop.body);
+        }
+    }
+
+    private void declare(int slot, String type) {
+        if (slot < 0 || type == null) return;
+        while (declared.size() <= slot) declared.add(null);
+        String before = declared.get(slot);
+        declared.set(slot, before == null || before.equals(type) ? type : CONFLICT);
+    }
+
+    // The variable's declared type, or null when it has none or several.
+    private String declaredType(int depth, int slot) {
+        if (depth != 0 || slot < 0 || slot >= declared.size()) return null;
+        String type = declared.get(slot);
+        return CONFLICT.equals(type) ? null : type;
+    }
+
+    private void check(Stmt stmt) {
+        if (stmt != null) stmt.accept(this);
+    }
+
+    private String check(Expr expr) {
+        if (expr == null) return null;
+        String type = expr.accept(this);
+        expr.type = type;
+        return type;
+    }
+
+    private static boolean isNonNumber(String type) {
+        return type != null && !type.equals(NUMERO) && !type.equals(TIPIK);
+    }
+
+    // NUMERO with NUMERO stays NUMERO, a TIPIK on either side makes TIPIK;
+    // null when a side is unknown.
+    private static String arithmeticType(String left, String right) {
+        if (left == null || right == null) return null;
+        return left.equals(TIPIK) || right.equals(TIPIK) ? TIPIK : NUMERO;
+    }
+
+    @Override
+    public Void visitBlockStmt(Stmt.Block stmt) {
+        for (Stmt statement : stmt.statements) check(statement);
+        return null;
+    }
+
+    @Override
+    public Void visitSugodStmt(Stmt.Sugod stmt) {
+        for (Stmt statement : stmt.statements) check(statement);
+        return null;
+    }
+
+    @Override
+    public Void visitExpressionStmt(Stmt.Expression stmt) {
+        check(stmt.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitPrintStmt(Stmt.Print stmt) {
+        check(stmt.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitVarStmt(Stmt.Var stmt) {
+        check(stmt.initializer);
+        return null;
+    }
+
+    @Override
+    public Void visitVarDeclaration(Stmt.VarDeclaration stmt) {
+        for (Stmt.Var var : stmt.variables) {
+            String value = check(var.initializer);
+            if (var.initializer == null || var.getType().equals(value)) {
+                var.checked = true;
+            } else if (value != null) {
+                diagnostics.typeError(var.name, "Variable " + var.name.getLexeme() + " must be of type " + var.getType() + ".");
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitIfStmt(Stmt.If stmt) {
+        check(stmt.condition);
+        check(stmt.thenBranch);
+        check(stmt.elseBranch);
+        return null;
+    }
+
+    @Override
+    public Void visitWhileStmt(Stmt.While stmt) {
+        check(stmt.condition);
+        check(stmt.body);
+        return null;
+    }
+
+    @Override
+    public Void visitInputStmt(Stmt.Input stmt) {
+        return null;
+    }
+
+    @Override
+    public String visitLiteralExpr(Expr.Literal expr) {
+        Object value = expr.value;
+        if (value instanceof Integer) return NUMERO;
+        if (value instanceof Float) return TIPIK;
+        if (value instanceof Character) return LETRA;
+        if (value instanceof Boolean) return TINUOD;
+        if (value instanceof String || value instanceof Text) return TEXT;
+        return null;
+    }
+
+    @Override
+    public String visitGroupingExpr(Expr.Grouping expr) {
+        return check(expr.expression);
+    }
+
+    @Override
+    public String visitVariableExpr(Expr.Variable expr) {
+        return declaredType(expr.depth, expr.slot);
+    }
+
+    @Override
+    public String visitAssignExpr(Expr.Assign expr) {
+        String value = check(expr.value);
+        String target = declaredType(expr.depth, expr.slot);
+        if (target == null || value == null) return value;
+        if (!target.equals(value)) {
+            diagnostics.typeError(expr.name, "Expected " + target + " for assignment.");
+            return null;
+        }
+        expr.checked = true;
+        return value;
+    }
+
+    @Override
+    public String visitUnaryExpr(Expr.Unary expr) {
+        String operand = check(expr.right);
+        return switch (expr.operator.getTokenType()) {
+            case MINUS -> {
+                if (!isNonNumber(operand)) yield operand;
+                diagnostics.typeError(expr.operator, "Operand must be a number.");
+                yield null;
+            }
+            case NOT -> TINUOD;
+            default -> null;
+        };
+    }
+
+    @Override
+    public String visitBinaryExpr(Expr.Binary expr) {
+        String left = check(expr.left);
+        String right = check(expr.right);
+        return switch (expr.operator.getTokenType()) {
+            case MINUS, DIVIDE, MULTIPLY, PLUS, MODULO -> {
+                if (!isNonNumber(left) && !isNonNumber(right)) yield arithmeticType(left, right);
+                diagnostics.typeError(expr.operator, "Operands must be numbers.");
+                yield null;
+            }
+            case GREATER_THAN, GREATER_EQUAL, LESS_THAN, LESS_EQUAL -> {
+                if (isNonNumber(left) || isNonNumber(right)) {
+                    diagnostics.typeError(expr.operator, "Operands must be numbers.");
+                }
+                yield TINUOD;
+            }
+            case EQUALS, NOT_EQUALS -> TINUOD;
+            case CONCAT, NEXT_LINE -> TEXT;
+            default -> null;
+        };
+    }
+
+    // UG and O give one of their operands, not a TINUOD.
+    @Override
+    public String visitLogicalExpr(Expr.Logical expr) {
+        String left = check(expr.left);
+        String right = check(expr.right);
+        return left != null && left.equals(right) ? left : null;
+    }
+
+    @Override
+    public String visitIncrementExpr(Expr.Increment expr) {
+        return step(expr.name, expr.depth, expr.slot);
+    }
+
+    @Override
+    public String visitDecrementExpr(Expr.Decrement expr) {
+        return step(expr.name, expr.depth, expr.slot);
+    }
+
+    private String step(Token name, int depth, int slot) {
+        String type = declaredType(depth, slot);
+        if (type == null || type.equals(NUMERO)) return NUMERO;
+        diagnostics.typeError(name, "Only numbers can be incremented or decremented.");
+        return null;
+    }
+}
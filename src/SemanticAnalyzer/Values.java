@@ -0,0 +1,161 @@
+package SemanticAnalyzer;
+
+import LexicalAnalyzer.Token;
+import Utils.RuntimeError;
+
+// Value rules shared by the tree-walking Interpreter and the bytecode VM,
+// so both engines agree on truthiness, equality, printing and typing.
+public final class Values {
+    private Values() {
+    }
+
+    public static boolean isTruthy(Object object) {
+        return object instanceof Boolean ? (boolean) object : object != null;
+    }
+
+    public static boolean isEqual(Object a, Object b) {
+        a = plain(a);
+        b = plain(b);
+        return a == null ? b == null : a.equals(b);
+    }
+
+    // The value with any & / $ result turned into its String, for code that
+    // needs the exact object the operators used to produce.
+    public static Object plain(Object object) {
+        return object instanceof Text text ? text.toString() : object;
+    }
+
+    public static String stringify(Object object) {
+        if (object == null) return "null";
+        if (object instanceof Integer i) return Integer.toString(i);
+        if (object instanceof Boolean b) return b ? "OO" : "DILI";
+        return object.toString();
+    }
+
+    // Same text as stringify, appended without building intermediate Strings.
+    public static void appendTo(StringBuilder builder, Object object) {
+        if (object instanceof Integer i) {
+            builder.append((int) i);
+        } else if (object instanceof Text text) {
+            text.appendTo(builder);
+        } else if (object instanceof Boolean b) {
+            builder.append(b ? "OO" : "DILI");
+        } else if (object instanceof Character c) {
+            builder.append((char) c);
+        } else {
+            builder.append(object);
+        }
+    }
+
+    // Called on every assignment, so avoid the String switch: it hashes the
+    // type name each time, while equals() on these short literals is cheap.
+    public static boolean isTypeCompatible(String type, Object value) {
+        if (type.equals("NUMERO")) return value instanceof Integer;
+        if (type.equals("TIPIK")) return value instanceof Float;
+        if (type.equals("LETRA")) return value instanceof Character;
+        if (type.equals("TINUOD")) return value instanceof Boolean;
+        return false;
+    }
+
+    public static Object defaultValue(Token name, String type) {
+        return switch (type) {
+            case "NUMERO" -> 0;
+            case "TIPIK" -> 0.0f;
+            case "TINUOD" -> false;
+            case "LETRA" -> '\0';
+            default -> throw new RuntimeError(name, "Unsupported type: " + type);
+        };
+    }
+
+    public static Object parseInput(Token varName, String type, String inputValue) {
+        if (type == null) throw new RuntimeError(varName, "Variable type is undefined.");
+
+        try {
+            return switch (type) {
+                case "NUMERO" -> parseInteger(inputValue);
+                case "TIPIK" -> Float.parseFloat(inputValue);
+                case "TINUOD" -> inputValue.equalsIgnoreCase("OO");
+                case "LETRA" -> {
+                    if (inputValue.length() != 1)
+                        throw new RuntimeError(varName, "Expected a single character.");
+                    yield inputValue.charAt(0);
+                }
+                default -> throw new RuntimeError(varName, "Unsupported type: " + type);
+            };
+        } catch (NumberFormatException e) {
+            throw new RuntimeError(varName, "Invalid input for type " + type + ": " + inputValue);
+        }
+    }
+
+    // Integer.parseInt for what DAWAT is given: surrounding spaces are
+    // allowed, as Float.parseFloat allows them for TIPIK.
+    static int parseInteger(String text) {
+        int begin = 0;
+        int end = text.length();
+        while (begin < end && text.charAt(begin) <= ' ') begin++;
+        while (end > begin && text.charAt(end - 1) <= ' ') end--;
+        return Integer.parseInt(text, begin, end, 10);
+    }
+
+    // + - * / and % on any two values. Two NUMERO give a NUMERO, with /
+    // rounding toward zero; a TIPIK on either side makes it TIPIK
+    // arithmetic. The engines do NUMERO pairs themselves and come here for
+    // the rest.
+    public static Object arithmetic(Token operator, Object left, Object right) {
+        if (left instanceof Integer a && right instanceof Integer b) return arithmetic(operator, (int) a, (int) b);
+        if (!isNumber(left) || !isNumber(right)) throw new RuntimeError(operator, "Operands must be numbers.");
+        float a = ((Number) left).floatValue();
+        float b = ((Number) right).floatValue();
+        return switch (operator.getTokenType()) {
+            case PLUS -> a + b;
+            case MINUS -> a - b;
+            case MULTIPLY -> a * b;
+            case DIVIDE -> a / b;
+            default -> a % b;
+        };
+    }
+
+    public static int arithmetic(Token operator, int left, int right) {
+        return switch (operator.getTokenType()) {
+            case PLUS -> left + right;
+            case MINUS -> left - right;
+            case MULTIPLY -> left * right;
+            case DIVIDE -> divide(operator, left, right);
+            default -> remainder(operator, left, right);
+        };
+    }
+
+    public static int divide(Token operator, int left, int right) {
+        if (right == 0) throw new RuntimeError(operator, "Division by zero.");
+        return left / right;
+    }
+
+    public static int remainder(Token operator, int left, int right) {
+        if (right == 0) throw new RuntimeError(operator, "Division by zero.");
+        return left % right;
+    }
+
+    public static Object negate(Token operator, Object operand) {
+        if (operand instanceof Integer i) return -i;
+        if (operand instanceof Float f) return -f;
+        throw new RuntimeError(operator, "Operand must be a number.");
+    }
+
+    // >, >=, < and <= on any two values. A NUMERO and a TIPIK are compared
+    // as doubles, which hold both exactly.
+    public static boolean compare(Token operator, Object left, Object right) {
+        if (!isNumber(left) || !isNumber(right)) throw new RuntimeError(operator, "Operands must be numbers.");
+        double a = ((Number) left).doubleValue();
+        double b = ((Number) right).doubleValue();
+        return switch (operator.getTokenType()) {
+            case GREATER_THAN -> a > b;
+            case GREATER_EQUAL -> a >= b;
+            case LESS_THAN -> a < b;
+            default -> a <= b;
+        };
+    }
+
+    private static boolean isNumber(Object value) {
+        return value instanceof Integer || value instanceof Float;
+    }
+}
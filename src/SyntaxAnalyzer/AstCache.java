@@ -0,0 +1,160 @@
+package SyntaxAnalyzer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+// On-disk cache of parsed programs, so running an unchanged script again
+// skips lexing and parsing. Entries are named by the SHA-256 of the source
+// and start with a header holding the codec format and a digest of the
+// classes that lex, parse and encode the tree, so any rebuild that could
+// change the tree invalidates the cache; an entry written by another build
+// is treated as a miss and removed. Once the directory grows past
+// maxBytes, the least recently used entries are deleted (a hit refreshes
+// the entry's modification time).
+//
+// Cache problems never fail a run: unreadable entries are misses and
+// failed writes are ignored.
+public class AstCache {
+    private static final int MAGIC = 0x42505043; // "BPPC"
+    private static final String EXTENSION = ".ast";
+    private static final String BUILD = buildDigest();
+
+    private final Path directory;
+    private final long maxBytes;
+    private final String version;
+
+    public AstCache(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.version = BUILD + "/" + AstCodec.FORMAT_VERSION;
+    }
+
+    // SHA-256 over the class files of everything that shapes a cached tree.
+    // When a class file cannot be read the id is random, so this process
+    // neither serves nor keeps entries another build may have written.
+    private static String buildDigest() {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            String[] classes = {
+                    "LexicalAnalyzer.Lexer", "LexicalAnalyzer.TokenStream", "LexicalAnalyzer.Keywords",
+                    "LexicalAnalyzer.NameTable", "LexicalAnalyzer.Token", "LexicalAnalyzer.TokenType",
+                    "SyntaxAnalyzer.Parser", "SyntaxAnalyzer.AstCodec", "SyntaxAnalyzer.Stmt", "SyntaxAnalyzer.Expr"
+            };
+            for (String name : classes) digestClass(digest, Class.forName(name, false, AstCache.class.getClassLoader()));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException | ReflectiveOperationException | NoSuchAlgorithmException e) {
+            byte[] id = new byte[32];
+            new SecureRandom().nextBytes(id);
+            return "unknown-" + HexFormat.of().formatHex(id);
+        }
+    }
+
+    private static void digestClass(MessageDigest digest, Class<?> type) throws IOException {
+        String resource = type.getName().replace('.', '/') + ".class";
+        try (InputStream in = type.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) throw new IOException("No class file for " + type.getName());
+            digest.update(in.readAllBytes());
+        }
+        for (Class<?> nested : type.getDeclaredClasses()) digestClass(digest, nested);
+    }
+
+    public static String key(byte[] source) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(source));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // The cached statements for this key, or null on a miss.
+    public List<Stmt> load(String key) {
+        Path entry = entry(key);
+        if (!Files.isRegularFile(entry)) return null;
+        List<Stmt> statements = null;
+        try {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(entry)))) {
+                if (in.readInt() == MAGIC && in.readUTF().equals(version)) statements = AstCodec.read(in);
+            }
+            if (statements == null) {
+                Files.deleteIfExists(entry);
+                return null;
+            }
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            return statements;
+        } catch (IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(entry);
+            } catch (IOException ignored) {
+            }
+            return null;
+        }
+    }
+
+    public void store(String key, List<Stmt> statements) {
+        Path temp = null;
+        try {
+            Files.createDirectories(directory);
+            temp = Files.createTempFile(directory, key, ".tmp");
+            try (OutputStream file = Files.newOutputStream(temp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+                out.writeInt(MAGIC);
+                out.writeUTF(version);
+                AstCodec.write(statements, out);
+            }
+            try {
+                Files.move(temp, entry(key), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, entry(key), StandardCopyOption.REPLACE_EXISTING);
+            }
+            evict();
+        } catch (IOException e) {
+            try {
+                if (temp != null) Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private Path entry(String key) {
+        return directory.resolve(key + EXTENSION);
+    }
+
+    private void evict() throws IOException {
+        record Entry(Path path, long size, long lastUsed) {
+        }
+        List<Entry> entries = new ArrayList<>();
+        long total = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (Path file : files) {
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                entries.add(new Entry(file, attributes.size(), attributes.lastModifiedTime().toMillis()));
+                total += attributes.size();
+            }
+        }
+        if (total <= maxBytes) return;
+
+        entries.sort((a, b) -> Long.compare(a.lastUsed(), b.lastUsed()));
+        for (Entry entry : entries) {
+            if (total <= maxBytes) break;
+            if (Files.deleteIfExists(entry.path())) total -= entry.size();
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package SyntaxAnalyzer;
+
+import LexicalAnalyzer.Token;
+import LexicalAnalyzer.TokenType;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// Compact binary form of a parsed program, used by AstCache. Each node is a
+// tag byte followed by its fields in declaration order; a 0 tag stands for
+// a missing node (an absent KUNG WALA branch or initializer). Resolver
+// results (depth, slot) are not stored; the tree is resolved again on load.
+//
+// Bump FORMAT_VERSION whenever a node, TokenType or this layout changes.
+public class AstCodec implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
+    public static final int FORMAT_VERSION = 3;
+
+    private static final byte NONE = 0;
+    // Statements
+    private static final byte BLOCK = 1;
+    private static final byte SUGOD = 2;
+    private static final byte EXPRESSION = 3;
+    private static final byte PRINT = 4;
+    private static final byte INPUT = 5;
+    private static final byte VAR = 6;
+    private static final byte VAR_DECLARATION = 7;
+    private static final byte IF = 8;
+    private static final byte WHILE = 9;
+    // Expressions
+    private static final byte BINARY = 20;
+    private static final byte GROUPING = 21;
+    private static final byte LITERAL = 22;
+    private static final byte UNARY = 23;
+    private static final byte VARIABLE = 24;
+    private static final byte ASSIGN = 25;
+    private static final byte LOGICAL = 26;
+    private static final byte INCREMENT = 27;
+    private static final byte DECREMENT = 28;
+    // Literal values
+    private static final byte NULL_VALUE = 0;
+    private static final byte INTEGER_VALUE = 1;
+    private static final byte FLOAT_VALUE = 2;
+    private static final byte BOOLEAN_VALUE = 3;
+    private static final byte CHARACTER_VALUE = 4;
+    private static final byte STRING_VALUE = 5;
+
+    private static final TokenType[] TOKEN_TYPES = TokenType.values();
+
+    private final DataOutputStream out;
+
+    private AstCodec(DataOutputStream out) {
+        this.out = out;
+    }
+
+    public static void write(List<Stmt> statements, DataOutputStream out) throws IOException {
+        AstCodec codec = new AstCodec(out);
+        try {
+            codec.writeStatements(statements);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    public static List<Stmt> read(DataInputStream in) throws IOException {
+        return readStatements(in);
+    }
+
+    // Writing
+
+    private void writeStatements(List<Stmt> statements) {
+        writeInt(statements.size());
+        for (Stmt statement : statements) write(statement);
+    }
+
+    private void write(Stmt stmt) {
+        if (stmt == null) writeByte(NONE);
+        else stmt.accept(this);
+    }
+
+    private void write(Expr expr) {
+        if (expr == null) writeByte(NONE);
+        else expr.accept(this);
+    }
+
+    private void write(Token token) {
+        writeByte(token.getTokenType().ordinal());
+        writeString(token.getLexeme());
+        writeValue(token.getLiteral());
+        writeInt(token.getLine());
+    }
+
+    private void writeValue(Object value) {
+        try {
+            if (value == null) {
+                out.writeByte(NULL_VALUE);
+            } else if (value instanceof Integer i) {
+                out.writeByte(INTEGER_VALUE);
+                out.writeInt(i);
+            } else if (value instanceof Float f) {
+                out.writeByte(FLOAT_VALUE);
+                out.writeFloat(f);
+            } else if (value instanceof Boolean b) {
+                out.writeByte(BOOLEAN_VALUE);
+                out.writeBoolean(b);
+            } else if (value instanceof Character c) {
+                out.writeByte(CHARACTER_VALUE);
+                out.writeChar(c);
+            } else {
+                out.writeByte(STRING_VALUE);
+                writeString(value.toString());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Length-prefixed UTF-8; writeUTF caps strings at 64 KB.
+    private void writeString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeInt(bytes.length);
+        try {
+            out.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeByte(int value) {
+        try {
+            out.writeByte(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeInt(int value) {
+        try {
+            out.writeInt(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Void visitBlockStmt(Stmt.Block stmt) {
+        writeByte(BLOCK);
+        writeStatements(stmt.statements);
+        return null;
+    }
+
+    @Override
+    public Void visitSugodStmt(Stmt.Sugod stmt) {
+        writeByte(SUGOD);
+        writeStatements(stmt.statements);
+        return null;
+    }
+
+    @Override
+    public Void visitExpressionStmt(Stmt.Expression stmt) {
+        writeByte(EXPRESSION);
+        write(stmt.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitPrintStmt(Stmt.Print stmt) {
+        writeByte(PRINT);
+        write(stmt.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitInputStmt(Stmt.Input stmt) {
+        writeByte(INPUT);
+        writeInt(stmt.getVariableNames().size());
+        for (Token name : stmt.getVariableNames()) write(name);
+        return null;
+    }
+
+    @Override
+    public Void visitVarStmt(Stmt.Var stmt) {
+        writeByte(VAR);
+        writeVar(stmt);
+        return null;
+    }
+
+    private void writeVar(Stmt.Var stmt) {
+        write(stmt.name);
+        write(stmt.initializer);
+        write(stmt.type);
+    }
+
+    @Override
+    public Void visitVarDeclaration(Stmt.VarDeclaration stmt) {
+        writeByte(VAR_DECLARATION);
+        writeInt(stmt.variables.size());
+        for (Stmt.Var var : stmt.variables) writeVar(var);
+        return null;
+    }
+
+    @Override
+    public Void visitIfStmt(Stmt.If stmt) {
+        writeByte(IF);
+        write(stmt.condition);
+        write(stmt.thenBranch);
+        write(stmt.elseBranch);
+        return null;
+    }
+
+    @Override
+    public Void visitWhileStmt(Stmt.While stmt) {
+        writeByte(WHILE);
+        write(stmt.keyword);
+        write(stmt.condition);
+        write(stmt.body);
+        return null;
+    }
+
+    @Override
+    public Void visitBinaryExpr(Expr.Binary expr) {
+        writeByte(BINARY);
+        write(expr.left);
+        write(expr.operator);
+        write(expr.right);
+        return null;
+    }
+
+    @Override
+    public Void visitGroupingExpr(Expr.Grouping expr) {
+        writeByte(GROUPING);
+        write(expr.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitLiteralExpr(Expr.Literal expr) {
+        writeByte(LITERAL);
+        writeValue(expr.value);
+        return null;
+    }
+
+    @Override
+    public Void visitUnaryExpr(Expr.Unary expr) {
+        writeByte(UNARY);
+        write(expr.operator);
+        write(expr.right);
+        return null;
+    }
+
+    @Override
+    public Void visitVariableExpr(Expr.Variable expr) {
+        writeByte(VARIABLE);
+        write(expr.name);
+        return null;
+    }
+
+    @Override
+    public Void visitAssignExpr(Expr.Assign expr) {
+        writeByte(ASSIGN);
+        write(expr.name);
+        write(expr.value);
+        return null;
+    }
+
+    @Override
+    public Void visitLogicalExpr(Expr.Logical expr) {
+        writeByte(LOGICAL);
+        write(expr.left);
+        write(expr.operator);
+        write(expr.right);
+        return null;
+    }
+
+    @Override
+    public Void visitIncrementExpr(Expr.Increment expr) {
+        writeByte(INCREMENT);
+        write(expr.name);
+        return null;
+    }
+
+    @Override
+    public Void visitDecrementExpr(Expr.Decrement expr) {
+        writeByte(DECREMENT);
+        write(expr.name);
+        return null;
+    }
+
+    // Reading
+
+    private static List<Stmt> readStatements(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<Stmt> statements = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) statements.add(readStmt(in));
+        return statements;
+    }
+
+    private static Stmt readStmt(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        return switch (tag) {
+            case NONE -> null;
+            case BLOCK -> new Stmt.Block(readStatements(in));
+            case SUGOD -> new Stmt.Sugod(readStatements(in));
+            case EXPRESSION -> new Stmt.Expression(readExpr(in));
+            case PRINT -> new Stmt.Print(readExpr(in));
+            case INPUT -> {
+                int count = in.readInt();
+                List<Token> names = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) names.add(readToken(in));
+                yield new Stmt.Input(names);
+            }
+            case VAR -> readVar(in);
+            case VAR_DECLARATION -> {
+                int count = in.readInt();
+                List<Stmt.Var> variables = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) variables.add(readVar(in));
+                yield new Stmt.VarDeclaration(variables);
+            }
+            case IF -> new Stmt.If(readExpr(in), readStmt(in), readStmt(in));
+            case WHILE -> new Stmt.While(readToken(in), readExpr(in), readStmt(in));
+            default -> throw new IOException("Unknown statement tag " + tag);
+        };
+    }
+
+    private static Stmt.Var readVar(DataInputStream in) throws IOException {
+        Token name = readToken(in);
+        Expr initializer = readExpr(in);
+        return new Stmt.Var(name, initializer, readToken(in));
+    }
+
+    private static Expr readExpr(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        return switch (tag) {
+            case NONE -> null;
+            case BINARY -> new Expr.Binary(readExpr(in), readToken(in), readExpr(in));
+            case GROUPING -> new Expr.Grouping(readExpr(in));
+            case LITERAL -> new Expr.Literal(readValue(in));
+            case UNARY -> new Expr.Unary(readToken(in), readExpr(in));
+            case VARIABLE -> new Expr.Variable(readToken(in));
+            case ASSIGN -> new Expr.Assign(readToken(in), readExpr(in));
+            case LOGICAL -> new Expr.Logical(readExpr(in), readToken(in), readExpr(in));
+            case INCREMENT -> new Expr.Increment(readToken(in));
+            case DECREMENT -> new Expr.Decrement(readToken(in));
+            default -> throw new IOException("Unknown expression tag " + tag);
+        };
+    }
+
+    private static Token readToken(DataInputStream in) throws IOException {
+        int ordinal = in.readUnsignedByte();
+        if (ordinal >= TOKEN_TYPES.length) throw new IOException("Unknown token type " + ordinal);
+        String lexeme = readString(in);
+        Object literal = readValue(in);
+        return new Token(TOKEN_TYPES[ordinal], lexeme, literal, in.readInt());
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        return switch (tag) {
+            case NULL_VALUE -> null;
+            case INTEGER_VALUE -> in.readInt();
+            case FLOAT_VALUE -> in.readFloat();
+            case BOOLEAN_VALUE -> in.readBoolean();
+            case CHARACTER_VALUE -> in.readChar();
+            case STRING_VALUE -> readString(in);
+            default -> throw new IOException("Unknown value tag " + tag);
+        };
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
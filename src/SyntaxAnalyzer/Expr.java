@@ -8,6 +8,11 @@ package SyntaxAnalyzer;
 import LexicalAnalyzer.Token;
 
 public abstract class Expr {
+    // Set by the TypeChecker: NUMERO, TIPIK, LETRA or TINUOD when every
+    // value of this expression is of that type (or null), TEXT for & and $
+    // results, and null when the type is not known until it runs.
+    public String type;
+
     public Expr() {
     }
 
@@ -15,6 +20,8 @@ public abstract class Expr {
 
     public static class Variable extends Expr {
         public final Token name;
+        public int depth;
+        public int slot = -1;
 
         Variable(Token name) {
             this.name = name;
@@ -103,6 +110,9 @@ public abstract class Expr {
     public static class Assign extends Expr {
         public final Token name;
         public final Expr value;
+        public int depth;
+        public int slot = -1;
+        public boolean checked;   // the TypeChecker proved value fits the variable
 
         Assign(Token name, Expr value) {
             this.name = name;
@@ -140,6 +150,8 @@ public abstract class Expr {
 
     public static class Increment extends Expr {
         public final Token name;
+        public int depth;
+        public int slot = -1;
 
 
         public Increment(Token name) {
@@ -155,6 +167,8 @@ public abstract class Expr {
 
     public static class Decrement extends Expr {
         public final Token name;
+        public int depth;
+        public int slot = -1;
 
 
         public Decrement(Token name) {
@@ -0,0 +1,314 @@
+package SyntaxAnalyzer;
+
+import LexicalAnalyzer.IncrementalLexer;
+import LexicalAnalyzer.Token;
+import LexicalAnalyzer.TokenType;
+import Utils.Diagnostics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// Keeps the tokens and statements of a script up to date as it is edited,
+// for an editor that lexes and parses on every keystroke. The tokens come
+// from an IncrementalLexer. Each statement of SUGOD and of every PUNDOK
+// block is remembered with the number of tokens it spans, so an edit finds
+// the innermost block around it and parses again from the statement it
+// touches, only until the parse lines up with an old statement boundary
+// past the edit (or with the block's closing '}'). Everything else is
+// reused: the same Stmt objects, with the block's statement list updated
+// in place. When the edit changes where a block ends, the block's own
+// statement is parsed again one level up, and so on up to the whole
+// program.
+//
+// statements() is what Parser.parse() would return and report() reports
+// what lexing and parsing the whole source would, lexical errors first.
+// The AST is valid until the next edit.
+public final class IncrementalParser {
+    // A statement of SUGOD or of a PUNDOK, with the PUNDOK blocks inside it.
+    // Offsets count tokens from the statement's first token.
+    private static final class Item {
+        int length;
+        final List<Block> blocks;
+        final List<Problem> errors;
+
+        Item(int length, List<Block> blocks, List<Problem> errors) {
+            this.length = length;
+            this.blocks = blocks;
+            this.errors = errors;
+        }
+    }
+
+    // From '{' through '}'; the items start right after the '{'.
+    private static final class Block {
+        int offset;
+        int length;
+        final List<Stmt> statements;
+        final List<Item> items;
+
+        Block(int offset, int length, List<Stmt> statements, List<Item> items) {
+            this.offset = offset;
+            this.length = length;
+            this.statements = statements;
+            this.items = items;
+        }
+    }
+
+    private static final class Problem {
+        int offset;
+        final Token token;
+        final String message;
+
+        Problem(int offset, Token token, String message) {
+            this.offset = offset;
+            this.token = token;
+            this.message = message;
+        }
+    }
+
+    private final IncrementalLexer lexer;
+    private List<Stmt> statements;
+    private List<Item> items;            // SUGOD's statements; null if the program is not SUGOD ... KATAPUSAN
+    private List<Problem> programErrors;   // everything the last whole parse reported, when items is null
+
+    public IncrementalParser(String source) {
+        lexer = new IncrementalLexer(source);
+        parseAll();
+    }
+
+    public String source() {
+        return lexer.source();
+    }
+
+    public List<Token> tokens() {
+        return lexer.tokens();
+    }
+
+    public List<Stmt> statements() {
+        return statements;
+    }
+
+    // Replaces `removed` chars at `offset` with `inserted`.
+    public void edit(int offset, int removed, String inserted) {
+        IncrementalLexer.Change change = lexer.edit(offset, removed, inserted);
+        if (items != null) {
+            int delta = change.newTo() - change.oldTo();
+            List<Stmt> body = ((Stmt.Sugod) statements.get(0)).statements;
+            int end = 1;
+            for (Item item : items) end += item.length;
+            if (reparse(items, body, 1, end, true, change.from(), change.oldTo(), delta)) return;
+        }
+        parseAll();
+    }
+
+    public void report(Diagnostics diagnostics) {
+        lexer.report(diagnostics);
+        List<Problem> errors = new ArrayList<>();
+        if (items == null) {
+            errors.addAll(programErrors);
+        } else {
+            collect(items, 1, errors);
+            errors.sort(Comparator.comparingInt(error -> error.offset));
+        }
+        for (Problem error : errors) diagnostics.error(error.token, error.message);
+    }
+
+    // Errors with their offsets made absolute.
+    private static void collect(List<Item> items, int begin, List<Problem> into) {
+        for (Item item : items) {
+            for (Problem error : item.errors) into.add(new Problem(begin + error.offset, error.token, error.message));
+            for (Block block : item.blocks) collect(block.items, begin + block.offset + 1, into);
+            begin += item.length;
+        }
+    }
+
+    private void parseAll() {
+        Recorder recorder = new Recorder();
+        Parser parser = new Parser(lexer.tokens().iterator(), new Diagnostics());
+        parser.setListener(recorder);
+        statements = parser.parse();
+        items = recorder.items(0);
+        programErrors = null;
+        if (!wellFormed()) {
+            items = null;
+            programErrors = recorder.errors;
+        }
+    }
+
+    // SUGOD, the items, KATAPUSAN and nothing after: the shape edit() can
+    // patch. Anything else is parsed whole until an edit restores it.
+    private boolean wellFormed() {
+        List<Token> tokens = lexer.tokens();
+        int end = 1;
+        for (Item item : items) end += item.length;
+        return tokens.get(0).getTokenType() == TokenType.START
+                && end + 1 < tokens.size()
+                && tokens.get(end).getTokenType() == TokenType.END
+                && tokens.get(end + 1).getTokenType() == TokenType.EOF;
+    }
+
+    // Parses the statements of one SUGOD or PUNDOK again for a change that
+    // replaced old tokens [from, oldTo) and moved the ones after by delta.
+    // `first` is the level's first statement and `close` its KATAPUSAN or
+    // '}', both as old token positions. False if the change reaches past
+    // the level, leaving it untouched.
+    private boolean reparse(List<Item> level, List<Stmt> body, int first, int close, boolean program,
+                            int from, int oldTo, int delta) {
+        if (from < first || oldTo > close) return false;
+
+        // The parser looks one token ahead, so a statement that ends right
+        // where the change starts may end differently now.
+        int index = 0;
+        int begin = first;
+        while (index < level.size() && begin + level.get(index).length < from) {
+            begin += level.get(index).length;
+            index++;
+        }
+
+        if (index < level.size()) {
+            Item item = level.get(index);
+            for (int b = 0; b < item.blocks.size(); b++) {
+                Block block = item.blocks.get(b);
+                int open = begin + block.offset;
+                int end = open + block.length - 1;
+                if (from <= open || oldTo > end) continue;
+                if (!reparse(block.items, block.statements, open + 1, end, false, from, oldTo, delta)) break;
+                block.length += delta;
+                item.length += delta;
+                for (int later = b + 1; later < item.blocks.size(); later++) item.blocks.get(later).offset += delta;
+                for (Problem error : item.errors) {
+                    if (error.offset > block.offset) error.offset += delta;
+                }
+                return true;
+            }
+        }
+
+        List<Token> tokens = lexer.tokens();
+        Recorder recorder = new Recorder();
+        Parser parser = new Parser(tokens.subList(begin, tokens.size()).iterator(), new Diagnostics());
+        parser.setListener(recorder);
+        List<Item> fresh = new ArrayList<>();
+        List<Stmt> freshBody = new ArrayList<>();
+        int newTo = oldTo + delta;
+        int old = index;          // first old item not yet passed
+        int oldBegin = begin;     // where it started
+        while (!(program ? parser.atProgramEnd() : parser.atBlockEnd())) {
+            int start = parser.position();
+            freshBody.add(parser.nextDeclaration());
+            fresh.addAll(recorder.items(start));
+            int position = begin + parser.position();
+            if (position > close + delta) return false;
+            while (old < level.size() && oldBegin + delta < position) {
+                oldBegin += level.get(old).length;
+                old++;
+            }
+            if (position >= newTo && oldBegin >= oldTo && oldBegin + delta == position && old < level.size()) {
+                splice(level, body, index, old, fresh, freshBody);
+                return true;
+            }
+        }
+        if (begin + parser.position() != close + delta) return false;
+        splice(level, body, index, level.size(), fresh, freshBody);
+        return true;
+    }
+
+    private static void splice(List<Item> level, List<Stmt> body, int from, int to, List<Item> items, List<Stmt> statements) {
+        List<Item> oldItems = level.subList(from, to);
+        oldItems.clear();
+        oldItems.addAll(items);
+        List<Stmt> oldStatements = body.subList(from, to);
+        oldStatements.clear();
+        oldStatements.addAll(statements);
+    }
+
+    // Builds Items from what a Parser reports. Events arrive as each
+    // declaration or block ends, inner ones first, so whatever is pending
+    // from at or after a node's start belongs inside it.
+    private static final class Recorder implements Parser.Listener {
+        private static final class Node {
+            final int begin;
+            final int end;
+            final List<Stmt> statements;   // blocks only
+            final List<Node> children = new ArrayList<>();
+            final List<Problem> errors = new ArrayList<>();
+
+            Node(int begin, int end, List<Stmt> statements) {
+                this.begin = begin;
+                this.end = end;
+                this.statements = statements;
+            }
+        }
+
+        private final List<Node> pending = new ArrayList<>();
+        private final List<Problem> pendingErrors = new ArrayList<>();
+        final List<Problem> errors = new ArrayList<>();
+
+        @Override
+        public void declaration(int begin, int end, Stmt stmt) {
+            Node node = new Node(begin, end, null);
+            adopt(node);
+            pending.add(node);
+        }
+
+        @Override
+        public void block(int begin, int end, Stmt.Block block) {
+            Node node = new Node(begin, end, block.statements);
+            adopt(node);
+            pending.add(node);
+        }
+
+        @Override
+        public void error(int position, Token token, String message) {
+            Problem error = new Problem(position, token, message);
+            errors.add(error);
+            pendingErrors.add(error);
+        }
+
+        private void adopt(Node node) {
+            int first = pending.size();
+            while (first > 0 && pending.get(first - 1).begin >= node.begin) first--;
+            List<Node> inside = pending.subList(first, pending.size());
+            node.children.addAll(inside);
+            inside.clear();
+            int firstError = pendingErrors.size();
+            while (firstError > 0 && pendingErrors.get(firstError - 1).offset >= node.begin) firstError--;
+            List<Problem> own = pendingErrors.subList(firstError, pendingErrors.size());
+            for (Problem error : own) node.errors.add(new Problem(error.offset - node.begin, error.token, error.message));
+            own.clear();
+        }
+
+        // The declarations finished since position `from`, as Items, which
+        // are then forgotten.
+        List<Item> items(int from) {
+            int first = pending.size();
+            while (first > 0 && pending.get(first - 1).begin >= from) first--;
+            List<Node> done = pending.subList(first, pending.size());
+            List<Item> items = new ArrayList<>(done.size());
+            for (Node node : done) items.add(item(node));
+            done.clear();
+            return items;
+        }
+
+        private static Item item(Node declaration) {
+            List<Block> blocks = new ArrayList<>();
+            List<Problem> errors = new ArrayList<>(declaration.errors);
+            for (Node child : declaration.children) {
+                if (child.statements == null) {
+                    // Finished inside a block that never closed; the
+                    // statement it belonged to is gone, only its errors stay.
+                    absorb(child, child.begin - declaration.begin, errors);
+                    continue;
+                }
+                List<Item> items = new ArrayList<>(child.children.size());
+                for (Node statement : child.children) items.add(item(statement));
+                blocks.add(new Block(child.begin - declaration.begin, child.end - child.begin, child.statements, items));
+            }
+            return new Item(declaration.end - declaration.begin, blocks, errors);
+        }
+
+        private static void absorb(Node node, int offset, List<Problem> into) {
+            for (Problem error : node.errors) into.add(new Problem(offset + error.offset, error.token, error.message));
+            for (Node child : node.children) absorb(child, offset + child.begin - node.begin, into);
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package SyntaxAnalyzer;
+
+import LexicalAnalyzer.Token;
+import LexicalAnalyzer.TokenType;
+import SemanticAnalyzer.Values;
+import Utils.RuntimeError;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Simplifies the parsed tree before it is resolved and run: literal
+// subtrees are folded into a single Expr.Literal, parentheses are dropped,
+// UG/O with a constant left side are short-circuited, and KUNG branches
+// and ALANG SA loops that a constant condition rules out are removed.
+//
+// Only folds what evaluates the same way every time without an error, so a
+// program that fails at runtime (say "a" + 1) still fails with the same
+// message at the same line. Returns the original node when nothing changed.
+public class Optimizer implements Expr.Visitor<Expr>, Stmt.Visitor<Stmt> {
+
+    public List<Stmt> optimize(List<Stmt> statements) {
+        List<Stmt> result = new ArrayList<>(statements.size());
+        for (Stmt statement : statements) {
+            Stmt optimized = optimize(statement);
+            if (optimized != null) result.add(optimized);
+        }
+        return result;
+    }
+
+    private Stmt optimize(Stmt stmt) {
+        return stmt == null ? null : stmt.accept(this);
+    }
+
+    private Expr optimize(Expr expr) {
+        return expr == null ? null : expr.accept(this);
+    }
+
+    // Returns the same list when nothing in it changed, otherwise a copy
+    // without the statements that were removed.
+    private List<Stmt> optimizeAll(List<Stmt> statements) {
+        List<Stmt> result = null;
+        for (int i = 0; i < statements.size(); i++) {
+            Stmt statement = statements.get(i);
+            Stmt optimized = optimize(statement);
+            if (result == null && optimized != statement) {
+                result = new ArrayList<>(statements.subList(0, i));
+            }
+            if (result != null && optimized != null) result.add(optimized);
+        }
+        return result == null ? statements : result;
+    }
+
+    private static boolean isConstant(Expr expr) {
+        return expr instanceof Expr.Literal;
+    }
+
+    private static Object valueOf(Expr expr) {
+        return ((Expr.Literal) expr).value;
+    }
+
+    @Override
+    public Stmt visitBlockStmt(Stmt.Block stmt) {
+        List<Stmt> statements = optimizeAll(stmt.statements);
+        return statements == stmt.statements ? stmt : new Stmt.Block(statements);
+    }
+
+    @Override
+    public Stmt visitSugodStmt(Stmt.Sugod stmt) {
+        List<Stmt> statements = optimizeAll(stmt.statements);
+        return statements == stmt.statements ? stmt : new Stmt.Sugod(statements);
+    }
+
+    @Override
+    public Stmt visitExpressionStmt(Stmt.Expression stmt) {
+        // A bare variable statement is checked for being declared, and a
+        // parenthesized one is evaluated instead, so keep the parentheses.
+        if (stmt.expression instanceof Expr.Grouping grouping && grouping.expression instanceof Expr.Variable) {
+            return stmt;
+        }
+        Expr expression = optimize(stmt.expression);
+        return expression == stmt.expression ? stmt : new Stmt.Expression(expression);
+    }
+
+    @Override
+    public Stmt visitPrintStmt(Stmt.Print stmt) {
+        Expr expression = optimize(stmt.expression);
+        return expression == stmt.expression ? stmt : new Stmt.Print(expression);
+    }
+
+    @Override
+    public Stmt visitInputStmt(Stmt.Input stmt) {
+        return stmt;
+    }
+
+    @Override
+    public Stmt visitVarStmt(Stmt.Var stmt) {
+        Expr initializer = optimize(stmt.initializer);
+        return initializer == stmt.initializer ? stmt : new Stmt.Var(stmt.name, initializer, stmt.type);
+    }
+
+    @Override
+    public Stmt visitVarDeclaration(Stmt.VarDeclaration stmt) {
+        List<Stmt.Var> variables = new ArrayList<>(stmt.variables.size());
+        boolean changed = false;
+        for (Stmt.Var var : stmt.variables) {
+            Stmt.Var optimized = (Stmt.Var) visitVarStmt(var);
+            changed |= optimized != var;
+            variables.add(optimized);
+        }
+        return changed ? new Stmt.VarDeclaration(variables) : stmt;
+    }
+
+    @Override
+    public Stmt visitIfStmt(Stmt.If stmt) {
+        Expr condition = optimize(stmt.condition);
+        if (isConstant(condition)) {
+            return optimize(Values.isTruthy(valueOf(condition)) ? stmt.thenBranch : stmt.elseBranch);
+        }
+        Stmt thenBranch = optimize(stmt.thenBranch);
+        Stmt elseBranch = optimize(stmt.elseBranch);
+        if (condition == stmt.condition && thenBranch == stmt.thenBranch && elseBranch == stmt.elseBranch) {
+            return stmt;
+        }
+        return new Stmt.If(condition, thenBranch, elseBranch);
+    }
+
+    @Override
+    public Stmt visitWhileStmt(Stmt.While stmt) {
+        Expr condition = optimize(stmt.condition);
+        if (isConstant(condition) && !Values.isTruthy(valueOf(condition))) return null;
+        Stmt body = optimize(stmt.body);
+        if (condition == stmt.condition && body == stmt.body) return stmt;
+        return new Stmt.While(stmt.keyword, condition, body);
+    }
+
+    @Override
+    public Expr visitBinaryExpr(Expr.Binary expr) {
+        Expr left = optimize(expr.left);
+        Expr right = optimize(expr.right);
+        if (isConstant(left) && isConstant(right)) {
+            Expr folded = fold(expr.operator, valueOf(left), valueOf(right));
+            if (folded != null) return folded;
+        }
+        if (left == expr.left && right == expr.right) return expr;
+        return new Expr.Binary(left, expr.operator, right);
+    }
+
+    // Mirrors Interpreter.visitBinaryExpr for literal operands. Returns null
+    // for combinations that raise a runtime error, leaving them to the engine.
+    private static Expr fold(Token operator, Object left, Object right) {
+        if (isNumber(left) && isNumber(right)) {
+            switch (operator.getTokenType()) {
+                case PLUS, MINUS, MULTIPLY, DIVIDE, MODULO -> {
+                    try {
+                        return new Expr.Literal(Values.arithmetic(operator, left, right));
+                    } catch (RuntimeError divisionByZero) {
+                        return null;
+                    }
+                }
+                case GREATER_THAN, GREATER_EQUAL, LESS_THAN, LESS_EQUAL -> {
+                    return new Expr.Literal(Values.compare(operator, left, right));
+                }
+                default -> {
+                }
+            }
+        }
+        return switch (operator.getTokenType()) {
+            case EQUALS -> new Expr.Literal(Values.isEqual(left, right));
+            case NOT_EQUALS -> new Expr.Literal(!Values.isEqual(left, right));
+            case CONCAT -> new Expr.Literal(Values.stringify(left) + Values.stringify(right));
+            case NEXT_LINE -> new Expr.Literal(Values.stringify(left) + "\n" + Values.stringify(right));
+            default -> null;
+        };
+    }
+
+    @Override
+    public Expr visitGroupingExpr(Expr.Grouping expr) {
+        return optimize(expr.expression);
+    }
+
+    @Override
+    public Expr visitLiteralExpr(Expr.Literal expr) {
+        return expr;
+    }
+
+    @Override
+    public Expr visitUnaryExpr(Expr.Unary expr) {
+        Expr right = optimize(expr.right);
+        if (isConstant(right)) {
+            Object value = valueOf(right);
+            if (expr.operator.getTokenType() == TokenType.MINUS && isNumber(value)) {
+                return new Expr.Literal(Values.negate(expr.operator, value));
+            }
+            if (expr.operator.getTokenType() == TokenType.NOT) {
+                return new Expr.Literal(!Values.isTruthy(value));
+            }
+        }
+        return right == expr.right ? expr : new Expr.Unary(expr.operator, right);
+    }
+
+    // UG/O yield the deciding operand itself, not a Boolean, so a constant
+    // left side reduces the expression to one of its operands.
+    @Override
+    public Expr visitLogicalExpr(Expr.Logical expr) {
+        Expr left = optimize(expr.left);
+        Expr right = optimize(expr.right);
+        if (isConstant(left)) {
+            boolean truthy = Values.isTruthy(valueOf(left));
+            if (expr.operator.getTokenType() == TokenType.OR) return truthy ? left : right;
+            return truthy ? right : left;
+        }
+        if (left == expr.left && right == expr.right) return expr;
+        return new Expr.Logical(left, expr.operator, right);
+    }
+
+    @Override
+    public Expr visitVariableExpr(Expr.Variable expr) {
+        return expr;
+    }
+
+    @Override
+    public Expr visitAssignExpr(Expr.Assign expr) {
+        Expr value = optimize(expr.value);
+        return value == expr.value ? expr : new Expr.Assign(expr.name, value);
+    }
+
+    @Override
+    public Expr visitIncrementExpr(Expr.Increment expr) {
+        return expr;
+    }
+
+    @Override
+    public Expr visitDecrementExpr(Expr.Decrement expr) {
+        return expr;
+    }
+
+    private static boolean isNumber(Object value) {
+        return value instanceof Integer || value instanceof Float;
+    }
+}
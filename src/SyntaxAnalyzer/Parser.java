@@ -1,20 +1,77 @@
 package SyntaxAnalyzer;
 
-import LexicalAnalyzer.Lox;
 import LexicalAnalyzer.Token;
+import LexicalAnalyzer.TokenStream;
 import LexicalAnalyzer.TokenType;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import SyntaxAnalyzer.Stmt;
+import Utils.Diagnostics;
 
 public class Parser {
-    private final List<Token> tokens;
-    private int current = 0;
-    private static class ParseError extends RuntimeException {}
+    // Tokens are pulled as the parser advances; only the current lookahead
+    // and the last consumed token are kept. Over a TokenStream the parser
+    // walks an index instead and reads types straight from the stream,
+    // building a Token only for names, operators and errors.
+    private final Iterator<Token> tokens;
+    private Token current;
+    private Token previous;
+    private final TokenStream stream;
+    private int position = 0;
+    private final Diagnostics diagnostics;
+    private Listener listener = null;
+    // Thrown to unwind to the statement being parsed, which resyncs and
+    // goes on; without a stack trace, as a source full of mistakes throws
+    // one per error.
+    static class ParseError extends RuntimeException {
+        ParseError() {
+            super(null, null, false, false);
+        }
+    }
+
+    // Thrown once the Diagnostics error limit is reached; ends the parse.
+    private static final class Stop extends RuntimeException {
+        Stop() {
+            super(null, null, false, false);
+        }
+    }
+
+    // Told where each declaration and PUNDOK block starts and ends, as
+    // counts of tokens consumed, and where each error was reported.
+    // IncrementalParser uses it to map statements back to tokens.
+    interface Listener {
+        void declaration(int begin, int end, Stmt stmt);
+
+        void block(int begin, int end, Stmt.Block block);
+
+        void error(int position, Token token, String message);
+    }
     public Parser(List<Token> tokens) {
+        this(tokens.iterator());
+    }
+
+    public Parser(Iterator<Token> tokens) {
+        this(tokens, Diagnostics.printing());
+    }
+
+    public Parser(List<Token> tokens, Diagnostics diagnostics) {
+        this(tokens.iterator(), diagnostics);
+    }
+
+    public Parser(Iterator<Token> tokens, Diagnostics diagnostics) {
         this.tokens = tokens;
+        this.stream = null;
+        this.diagnostics = diagnostics;
+        this.current = tokens.next();
+    }
+
+    public Parser(TokenStream stream, Diagnostics diagnostics) {
+        this.tokens = null;
+        this.stream = stream;
+        this.diagnostics = diagnostics;
     }
 
     private Expr expression() {
@@ -22,15 +79,20 @@ public class Parser {
     }
 
     private Stmt declaration() {
+        int begin = position;
+        Stmt stmt;
         try {
             if (match(TokenType.MUGNA)) {
-                return varDeclaration();
+                stmt = varDeclaration();
+            } else {
+                stmt = statement();
             }
-            return statement();
         } catch (ParseError error) {
-            synchronize();
-            return null;
+            synchronize(begin);
+            stmt = null;
         }
+        if (listener != null) listener.declaration(begin, position, stmt);
+        return stmt;
     }
 
 
@@ -39,15 +101,20 @@ public class Parser {
         if (match(TokenType.IF)) return ifStatement();
         if (match(TokenType.FOR)) return forStatement();
         if (match(TokenType.INPUT)){
-            consume(TokenType.COLON, "Expect ':' after input statement.");
+            expect(TokenType.COLON, "Expect ':' after input statement.");
             return inputStatement();
         }
         if (match(TokenType.PRINT)){
-            consume(TokenType.COLON, "Expect ':' after print statement.");
+            expect(TokenType.COLON, "Expect ':' after print statement.");
             return printStatement();
         }
 
-        if (match(TokenType.LBRACE)) return new Stmt.Block(block());
+        if (match(TokenType.LBRACE)) {
+            int begin = position - 1;
+            Stmt.Block block = new Stmt.Block(block());
+            if (listener != null) listener.block(begin, position, block);
+            return block;
+        }
         return expressionStatement();
     }
 
@@ -94,17 +161,17 @@ public class Parser {
 
 
     private Stmt ifStatement() {
-        consume(TokenType.LPAREN, "Expect '(' after 'KUNG'.");
+        expect(TokenType.LPAREN, "Expect '(' after 'KUNG'.");
         Expr condition = expression();
-        consume(TokenType.RPAREN, "Expect ')' after KUNG condition.");
-        consume(TokenType.BLOCK, "Expect 'PUNDOK' after ')'");
+        expect(TokenType.RPAREN, "Expect ')' after KUNG condition.");
+        expect(TokenType.BLOCK, "Expect 'PUNDOK' after ')'");
         Stmt thenBranch = statement();
         Stmt elseBranch = null;
         if (match(TokenType.ELSE_IF)) {
             elseBranch = ifStatement();
         }
         else if (match(TokenType.ELSE)) {
-            consume(TokenType.BLOCK, "Expect 'PUNDOK' after 'KUNG WALA'");
+            expect(TokenType.BLOCK, "Expect 'PUNDOK' after 'KUNG WALA'");
             elseBranch = statement();
         }
         return new Stmt.If(condition, thenBranch, elseBranch);
@@ -113,7 +180,8 @@ public class Parser {
 
 
     private Stmt forStatement() {
-        consume(TokenType.LPAREN, "Expect '(' after 'ALANG SA'.");
+        Token keyword = previous();
+        expect(TokenType.LPAREN, "Expect '(' after 'ALANG SA'.");
 
 
         Stmt initializer;
@@ -126,14 +194,14 @@ public class Parser {
             initializer = expressionStatement();
         }
 
-        consume(TokenType.COMMA, "Expect ',' after initializer.");
+        expect(TokenType.COMMA, "Expect ',' after initializer.");
 
 
         Expr condition = null;
         if (!check(TokenType.COMMA)) {
             condition = expression();
         }
-        consume(TokenType.COMMA, "Expect ',' after loop condition.");
+        expect(TokenType.COMMA, "Expect ',' after loop condition.");
 
 
         Expr increment = null;
@@ -141,8 +209,8 @@ public class Parser {
             increment = expression();
         }
 
-        consume(TokenType.RPAREN, "Expect ')' after for clauses.");
-        consume(TokenType.BLOCK, "Expect 'PUNDOK' after ).");
+        expect(TokenType.RPAREN, "Expect ')' after for clauses.");
+        expect(TokenType.BLOCK, "Expect 'PUNDOK' after ).");
 
 
         Stmt body = statement();
@@ -160,7 +228,7 @@ public class Parser {
         if (condition == null) condition = new Expr.Literal(true);
 
 
-        body = new Stmt.While(condition, body);
+        body = new Stmt.While(keyword, condition, body);
 
 
         List<Stmt> statements = new ArrayList<>();
@@ -184,8 +252,7 @@ public class Parser {
 
     private Stmt varDeclaration() {
 
-        consume(TokenType.NUMERO, TokenType.LETRA, TokenType.TINUOD, TokenType.TIPIK);
-        Token type = previous();
+        Token type = consume(TokenType.NUMERO, TokenType.LETRA, TokenType.TINUOD, TokenType.TIPIK);
         List<Stmt.Var> vars = new ArrayList<>();
 
 
@@ -198,7 +265,7 @@ public class Parser {
                 vars.add(new Stmt.Var(name, null, type));
             } else {
 
-                consume(TokenType.ASSIGNMENT, "Expect '=' after variable name.");
+                expect(TokenType.ASSIGNMENT, "Expect '=' after variable name.");
                 Expr initializer = expression();
                 vars.add(new Stmt.Var(name, initializer, type));
             }
@@ -212,8 +279,7 @@ public class Parser {
 
     private Stmt singleVarDeclaration() {
 
-        consume(TokenType.NUMERO, TokenType.LETRA, TokenType.TINUOD, TokenType.TIPIK);
-        Token type = previous();
+        Token type = consume(TokenType.NUMERO, TokenType.LETRA, TokenType.TINUOD, TokenType.TIPIK);
 
         List<Stmt.Var> vars = new ArrayList<>();
 
@@ -249,7 +315,7 @@ public class Parser {
         while (!check(TokenType.RBRACE) && !isAtEnd()) {
             statements.add(declaration());
         }
-        consume(TokenType.RBRACE, "Expect '}' after block.");
+        expect(TokenType.RBRACE, "Expect '}' after block.");
         return statements;
     }
 
@@ -273,34 +339,65 @@ public class Parser {
 
     }
 
+    // Never throws: every syntax error goes to the Diagnostics and parsing
+    // goes on from the next statement, a missing SUGOD or KATAPUSAN
+    // included, until the end or the Diagnostics error limit. What comes
+    // back after an error is only good for tools that look at partial trees.
     public List<Stmt> parse(){
         List<Stmt> statements = new ArrayList<>();
-        if(!peek().getLexeme().equals("SUGOD")){
-            throw error(peek(),"Expect 'SUGOD' at the start of the program.");
-        }
+        try {
+            if(!peekLexemeIs("SUGOD")){
+                error(peek(),"Expect 'SUGOD' at the start of the program.");
+            }
 
-        statements.add(sugodStatement());
+            statements.add(sugodStatement());
 
-        if(!isAtEnd()){
-            throw error(peek(),"Expect 'KATAPUSAN' at the end of the program.");
+            if(!isAtEnd()){
+                error(peek(),"Expect 'KATAPUSAN' at the end of the program.");
+            }
+        } catch (Stop stop) {
+            // The limit was reached; the rest goes unparsed.
         }
         return statements;
 
     }
 
     private Stmt sugodStatement(){
-        consume(TokenType.START, "Expect 'SUGOD' at the start of the program.");
+        match(TokenType.START);
         List<Stmt> statements = new ArrayList<>();
-        while(!peek().getLexeme().equals("KATAPUSAN") && !isAtEnd()){
+        while(!peekLexemeIs("KATAPUSAN") && !isAtEnd()){
             statements.add(declaration());
         }
-        consume(TokenType.END, "Expect 'KATAPUSAN' after program.");
+        if (!match(TokenType.END)) error(peek(), "Expect 'KATAPUSAN' after program.");
         return new Stmt.Sugod(statements);
     }
 
 
 
 
+    // For IncrementalParser, which runs the SUGOD or PUNDOK statement loop
+    // itself over part of the tokens.
+
+    void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    Stmt nextDeclaration() {
+        return declaration();
+    }
+
+    boolean atBlockEnd() {
+        return check(TokenType.RBRACE) || isAtEnd();
+    }
+
+    boolean atProgramEnd() {
+        return peekLexemeIs("KATAPUSAN") || isAtEnd();
+    }
+
+    int position() {
+        return position;
+    }
+
     private Expr equality() {
         Expr expr = comparison();
         while (match(TokenType.NOT_EQUALS, TokenType.EQUALS)) {
@@ -314,7 +411,7 @@ public class Parser {
     private boolean match(TokenType... types) {
         for (TokenType type : types) {
             if (check(type)) {
-                advance();
+                skip();
                 return true;
             }
         }
@@ -323,22 +420,46 @@ public class Parser {
 
     private boolean check(TokenType type) {
         if (isAtEnd()) return false;
-        return peek().getTokenType() == type;
+        return peekType() == type;
     }
 
-    private Token advance() {
-        if (!isAtEnd()) current++;
-        return previous();
+    private void skip() {
+        if (isAtEnd()) return;
+        position++;
+        if (stream == null) {
+            previous = current;
+            current = tokens.next();
+        }
     }
 
     private boolean isAtEnd() {
-        return peek().getTokenType() == TokenType.EOF;
+        return peekType() == TokenType.EOF;
     }
     private Token peek() {
-        return tokens.get(current);
+        return stream != null ? stream.token(position) : current;
     }
     private Token previous() {
-        return tokens.get(current - 1);
+        return stream != null ? stream.token(position - 1) : previous;
+    }
+
+    private TokenType peekType() {
+        return stream != null ? stream.type(position) : current.getTokenType();
+    }
+
+    private TokenType previousType() {
+        return stream != null ? stream.type(position - 1) : previous.getTokenType();
+    }
+
+    private boolean startsLine() {
+        return stream != null ? stream.line(position) > stream.line(position - 1) : current.getLine() > previous.getLine();
+    }
+
+    private Object previousLiteral() {
+        return stream != null ? stream.literal(position - 1) : previous.getLiteral();
+    }
+
+    private boolean peekLexemeIs(String text) {
+        return stream != null ? stream.lexemeEquals(position, text) : current.getLexeme().equals(text);
     }
 
     private Expr comparison() {
@@ -363,7 +484,7 @@ public class Parser {
 
     private Expr factor() {
         Expr expr = unary();
-        while (match(TokenType.DIVIDE, TokenType.MULTIPLY)) {
+        while (match(TokenType.DIVIDE, TokenType.MULTIPLY, TokenType.MODULO)) {
             Token operator = previous();
             Expr right = unary();
             expr = new Expr.Binary(expr, operator, right);
@@ -387,20 +508,20 @@ public class Parser {
         if (match(TokenType.BOOL_TRUE)) return new Expr.Literal(true);
         if (match(TokenType.NULL)) return new Expr.Literal(null);
         if (match(TokenType.NUMBER)) {
-            return new Expr.Literal(previous().getLiteral());
+            return new Expr.Literal(previousLiteral());
         }
         if (match(TokenType.STRING)) {
-            return new Expr.Literal(previous().getLiteral());
+            return new Expr.Literal(previousLiteral());
         }
         if (match(TokenType.CHARACTER)) {
-            return new Expr.Literal(previous().getLiteral());
+            return new Expr.Literal(previousLiteral());
         }
         if (match(TokenType.FLOAT)) {
-            return new Expr.Literal(previous().getLiteral());
+            return new Expr.Literal(previousLiteral());
         }
         if (match(TokenType.LPAREN)) {
             Expr expr = expression();
-            consume(TokenType.RPAREN, "Expect ')' after expression.");
+            expect(TokenType.RPAREN, "Expect ')' after expression.");
             return new Expr.Grouping(expr);
         }
 
@@ -411,7 +532,7 @@ public class Parser {
 
             if (match(TokenType.INCREMENT)) {
                 Expr value = new Expr.Increment(variable);
-                consume(TokenType.PLUS, "Expect '+' after '++'.");
+                expect(TokenType.PLUS, "Expect '+' after '++'.");
 
                 return new Expr.Assign(variable, value);
             }
@@ -429,7 +550,7 @@ public class Parser {
 
 
             if (isIdentifier(value)) {
-                return new Expr.Variable(new Token(TokenType.IDENTIFIER, value, value, previous().getLine()));
+                return new Expr.Variable(previous().renamed(TokenType.IDENTIFIER, value, value));
             }
             if ((value.startsWith("\"") && value.endsWith("\"")) ||
                     (value.startsWith("'") && value.endsWith("'"))) {
@@ -438,7 +559,7 @@ public class Parser {
             }
 
 
-            return new Expr.Literal(previous().getLiteral());
+            return new Expr.Literal(previousLiteral());
         }
 
         if (match(TokenType.NEXT_LINE)) return new Expr.Literal('\n');
@@ -455,33 +576,48 @@ public class Parser {
 
 
     private Token consume(TokenType type, String message) {
-        if (check(type)) return advance();
-        throw this.error(this.peek(), message);
+        expect(type, message);
+        return previous();
+    }
+
+    // consume() for punctuation and keywords whose Token is not kept.
+    private void expect(TokenType type, String message) {
+        if (!check(type)) throw this.error(this.peek(), message);
+        skip();
     }
 
     private Token consume(TokenType... types) {
-        for (TokenType type : types) {
-            if (check(type)) return advance();
-        }
-        throw this.error(peek(), "Expect one of " + Arrays.toString(types));
+        if (!match(types)) throw this.error(peek(), "Expect one of " + Arrays.toString(types));
+        return previous();
     }
 
 
 
 
     private ParseError error(Token token, String message) {
-        Lox.error(token, message);
+        if (listener != null) listener.error(position, token, message);
+        diagnostics.error(token, message);
+        if (diagnostics.limitReached()) throw new Stop();
         return new ParseError();
     }
 
 
-    private void synchronize() {
-        advance();
+    // Skips to where the next statement most likely starts: a new line or
+    // a statement keyword. Statements rarely span lines, so this goes on
+    // with the next line rather than losing everything up to a keyword.
+    // An error found at the first token of the next line (`MUGNA NUMERO x =`
+    // and then a newline) leaves that token alone, since the next statement
+    // starts there; the declaration has consumed a token, so the parse
+    // still moves on. Otherwise the token in error is skipped first.
+    private void synchronize(int begin) {
+        if (position > begin && startsLine()) return;
+        skip();
 
         while (!isAtEnd()) {
-            if (previous().getTokenType() == TokenType.NEXT_LINE) return;
+            if (previousType() == TokenType.NEXT_LINE) return;
+            if (startsLine()) return;
 
-            switch (peek().getTokenType()) {
+            switch (peekType()) {
                 case MUGNA:
                 case START: //sugod
                 case END: //katapusan
@@ -492,10 +628,11 @@ public class Parser {
                 case ELSE_IF: // kung wala
                 case ELSE:  //kung dili
                 case FOR: // alang sa
+                case RBRACE: // the end of the block the error is in
                     return;
             }
 
-            advance();
+            skip();
         }
     }
 
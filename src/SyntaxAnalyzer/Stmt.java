@@ -69,9 +69,13 @@ public abstract class Stmt {
 
     public static class Input extends Stmt {
         private final List<Token> variableNames;
+        public final int[] depths;
+        public final int[] slots;
 
         public Input(List<Token> variableNames) {
             this.variableNames = variableNames;
+            this.depths = new int[variableNames.size()];
+            this.slots = new int[variableNames.size()];
         }
 
         public List<Token> getVariableNames() {
@@ -96,7 +100,8 @@ public abstract class Stmt {
     }
 
     public static class While extends Stmt {
-        While(Expr condition, Stmt body) {
+        While(Token keyword, Expr condition, Stmt body) {
+            this.keyword = keyword;
             this.condition = condition;
             this.body = body;
         }
@@ -106,6 +111,7 @@ public abstract class Stmt {
             return visitor.visitWhileStmt(this);
         }
 
+        public final Token keyword; // ALANG, for reporting the loop's line
         public final Expr condition;
         public final Stmt body;
     }
@@ -114,6 +120,8 @@ public abstract class Stmt {
         public final Token name;
         public final Expr initializer;
         final Token type;
+        public int slot = -1;
+        public boolean checked;   // the TypeChecker proved initializer fits the type
 
         public Var(Token name, Expr initializer, Token type) {
             this.name = name;
@@ -0,0 +1,43 @@
+package Utils;
+
+import LexicalAnalyzer.Token;
+
+// The running side of Limits for one run. The engines count steps in a
+// plain field or local and call check() at each loop back-edge, the only
+// place a program can run unbounded. The clock and the thread's interrupt
+// flag are only looked at every CLOCK_INTERVAL checks.
+public final class Budget {
+    private static final int CLOCK_INTERVAL = 1024;
+
+    private final Limits limits;
+    private final long maxSteps;
+    private final long deadline;
+    private int untilClock = CLOCK_INTERVAL;
+
+    Budget(Limits limits) {
+        this.limits = limits;
+        this.maxSteps = limits.maxSteps() == 0 ? Long.MAX_VALUE : limits.maxSteps();
+        this.deadline = limits.timeoutMillis() == 0 ? 0 : System.nanoTime() + limits.timeoutMillis() * 1_000_000;
+    }
+
+    public void check(long steps, Token token) {
+        if (steps > maxSteps) {
+            throw new LimitExceeded(token, LimitExceeded.Kind.STEPS,
+                    "Step limit of " + limits.maxSteps() + " exceeded.");
+        }
+        if (--untilClock == 0) {
+            untilClock = CLOCK_INTERVAL;
+            checkClock(token);
+        }
+    }
+
+    private void checkClock(Token token) {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new LimitExceeded(token, LimitExceeded.Kind.INTERRUPTED, "Execution interrupted.");
+        }
+        if (deadline != 0 && System.nanoTime() - deadline > 0) {
+            throw new LimitExceeded(token, LimitExceeded.Kind.TIME,
+                    "Time limit of " + limits.timeoutMillis() + " ms exceeded.");
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package Utils;
+
+// One reported error, with where it was found kept apart from the text, for
+// tools that sort, count or display errors themselves. toString() is the
+// message as the command line prints it.
+public final class Diagnostic {
+    public enum Kind {
+        LEXICAL,
+        SYNTAX,
+        TYPE,
+        RUNTIME
+    }
+
+    private final Kind kind;
+    private final int line;
+    private final String lexeme;
+    private final String message;
+    private final String text;
+
+    Diagnostic(Kind kind, int line, String lexeme, String message, String text) {
+        this.kind = kind;
+        this.line = line;
+        this.lexeme = lexeme;
+        this.message = message;
+        this.text = text;
+    }
+
+    public Kind kind() {
+        return kind;
+    }
+
+    public int line() {
+        return line;
+    }
+
+    // The token the error was found at; "" at the end of the source and
+    // null for lexical errors, which have no token.
+    public String lexeme() {
+        return lexeme;
+    }
+
+    // Without the "[line N] Error at ..." prefix.
+    public String message() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
@@ -0,0 +1,132 @@
+package Utils;
+
+import LexicalAnalyzer.Token;
+import LexicalAnalyzer.TokenType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Collects the syntax and runtime errors of one program run. The Lexer,
+// Parser and both engines report here instead of through static state, so
+// every run keeps its own errors. Messages use the format the command line
+// has always printed; each is also passed to the sink as it is reported.
+//
+// maxErrors caps the lexical and syntax errors kept. Once it is reached
+// the rest are only counted, and the Parser stops, so a source with
+// thousands of mistakes costs no more than one with maxErrors.
+public class Diagnostics {
+    public static final int UNLIMITED = 0;
+
+    private final Consumer<String> sink;
+    private final int maxErrors;
+    private final List<String> messages = new ArrayList<>();
+    private final List<Diagnostic> entries = new ArrayList<>();
+    private int errorCount = 0;
+    private boolean hadError = false;
+    private boolean hadRuntimeError = false;
+    private RuntimeError lastRuntimeError = null;
+
+    public Diagnostics() {
+        this(message -> {
+        });
+    }
+
+    public Diagnostics(Consumer<String> sink) {
+        this(sink, UNLIMITED);
+    }
+
+    public Diagnostics(Consumer<String> sink, int maxErrors) {
+        if (maxErrors < 0) throw new IllegalArgumentException("maxErrors must not be negative");
+        this.sink = sink;
+        this.maxErrors = maxErrors;
+    }
+
+    // Prints every message to standard error as it is reported.
+    public static Diagnostics printing() {
+        return new Diagnostics(System.err::println);
+    }
+
+    public static Diagnostics printing(int maxErrors) {
+        return new Diagnostics(System.err::println, maxErrors);
+    }
+
+    public void error(int line, String message) {
+        report(Diagnostic.Kind.LEXICAL, line, null, "", message);
+    }
+
+    public void error(Token token, String message) {
+        if (token.getTokenType() == TokenType.EOF) {
+            report(Diagnostic.Kind.SYNTAX, token.getLine(), "", " at end", message);
+        } else {
+            report(Diagnostic.Kind.SYNTAX, token.getLine(), token.getLexeme(), " at '" + token.getLexeme() + "'", message);
+        }
+    }
+
+    // A type error found before the program runs. Reported like a syntax
+    // error: the program does not run.
+    public void typeError(Token token, String message) {
+        report(Diagnostic.Kind.TYPE, token.getLine(), token.getLexeme(), " at '" + token.getLexeme() + "'", message);
+    }
+
+    public void runtimeError(RuntimeError error) {
+        Token token = error.getToken();
+        String text = error.getMessage() + "\n[line " + token.getLine() + "]";
+        add(new Diagnostic(Diagnostic.Kind.RUNTIME, token.getLine(), token.getLexeme(), error.getMessage(), text));
+        hadRuntimeError = true;
+        lastRuntimeError = error;
+    }
+
+    private void report(Diagnostic.Kind kind, int line, String lexeme, String where, String message) {
+        hadError = true;
+        errorCount++;
+        if (maxErrors != UNLIMITED && errorCount > maxErrors) return;
+        add(new Diagnostic(kind, line, lexeme, message, "[line " + line + "] Error" + where + ": " + message));
+    }
+
+    private void add(Diagnostic diagnostic) {
+        entries.add(diagnostic);
+        messages.add(diagnostic.toString());
+        sink.accept(diagnostic.toString());
+    }
+
+    // True once maxErrors lexical and syntax errors have been reported.
+    public boolean limitReached() {
+        return maxErrors != UNLIMITED && errorCount >= maxErrors;
+    }
+
+    // Lexical and syntax errors reported, including those past maxErrors.
+    public int errorCount() {
+        return errorCount;
+    }
+
+    public boolean hadError() {
+        return hadError;
+    }
+
+    public boolean hadRuntimeError() {
+        return hadRuntimeError;
+    }
+
+    // Reports everything other collected, in order, as if it happened here.
+    public void addAll(Diagnostics other) {
+        for (Diagnostic diagnostic : other.entries) add(diagnostic);
+        errorCount += other.errorCount;
+        hadError |= other.hadError;
+        hadRuntimeError |= other.hadRuntimeError;
+        if (other.lastRuntimeError != null) lastRuntimeError = other.lastRuntimeError;
+    }
+
+    public RuntimeError lastRuntimeError() {
+        return lastRuntimeError;
+    }
+
+    public List<String> messages() {
+        return Collections.unmodifiableList(messages);
+    }
+
+    public List<Diagnostic> entries() {
+        return Collections.unmodifiableList(entries);
+    }
+}
@@ -0,0 +1,20 @@
+package Utils;
+
+import LexicalAnalyzer.Token;
+
+// A run stopped by its Limits, or by an interrupt, rather than by an error
+// in the program. The token is the loop that was running at the time.
+public class LimitExceeded extends RuntimeError {
+    public enum Kind { STEPS, TIME, INTERRUPTED }
+
+    private final Kind kind;
+
+    public LimitExceeded(Token token, Kind kind, String message) {
+        super(token, message);
+        this.kind = kind;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+}
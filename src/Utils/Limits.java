@@ -0,0 +1,36 @@
+package Utils;
+
+// How much a single run may do before it is stopped: a step budget and a
+// wall-clock limit, 0 meaning no limit. A step is one statement run, the
+// same in the Interpreter, the NodeInterpreter and the VM, which charges
+// each pass of a loop the statements of its body.
+public final class Limits {
+    public static final Limits NONE = new Limits(0, 0);
+
+    private final long maxSteps;
+    private final long timeoutMillis;
+
+    public Limits(long maxSteps, long timeoutMillis) {
+        if (maxSteps < 0 || timeoutMillis < 0) throw new IllegalArgumentException("Limits must not be negative");
+        this.maxSteps = maxSteps;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    // -Dbisaya.maxSteps and -Dbisaya.timeoutMillis
+    public static Limits fromSystemProperties() {
+        return new Limits(Long.getLong("bisaya.maxSteps", 0L), Long.getLong("bisaya.timeoutMillis", 0L));
+    }
+
+    public long maxSteps() {
+        return maxSteps;
+    }
+
+    public long timeoutMillis() {
+        return timeoutMillis;
+    }
+
+    // The clock starts now.
+    public Budget start() {
+        return new Budget(this);
+    }
+}
@@ -0,0 +1,132 @@
+package Utils;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+// Where IPAKITA output goes. Text is encoded straight into one reusable
+// ByteBuffer and written to the channel only when the buffer reaches the
+// flush threshold, when flush() is called (end of program, before a DAWAT
+// prompt waits for input, before a runtime error is reported), or after
+// every line in line-buffered mode.
+//
+// Like PrintStream, write failures (a closed pipe) do not throw; they are
+// remembered and reported by checkError().
+public class Output {
+    public static final int DEFAULT_CAPACITY = 64 * 1024;
+
+    private static Output standard;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final CharsetEncoder encoder;
+    private final boolean asciiCompatible;
+    private final String lineSeparator = System.lineSeparator();
+    private int flushThreshold;
+    private boolean lineBuffered = false;
+    private boolean trouble = false;
+    private long written = 0;
+
+    public Output(WritableByteChannel channel, Charset charset, int capacity) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(capacity);
+        this.flushThreshold = capacity;
+        // Unmappable characters print as '?', the same as System.out.
+        this.encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.asciiCompatible = charset.equals(StandardCharsets.UTF_8)
+                || charset.equals(StandardCharsets.US_ASCII)
+                || charset.equals(StandardCharsets.ISO_8859_1);
+    }
+
+    // Process-wide output on standard out, in the encoding System.out uses.
+    public static synchronized Output standard() {
+        if (standard == null) {
+            standard = new Output(new FileOutputStream(FileDescriptor.out).getChannel(),
+                    System.out.charset(), DEFAULT_CAPACITY);
+        }
+        return standard;
+    }
+
+    public void setLineBuffered(boolean lineBuffered) {
+        this.lineBuffered = lineBuffered;
+    }
+
+    // Bytes to collect before writing to the channel, capped at the buffer size.
+    public void setFlushThreshold(int bytes) {
+        this.flushThreshold = Math.max(1, Math.min(bytes, buffer.capacity()));
+    }
+
+    public void print(CharSequence text) {
+        write(text);
+        if (buffer.position() >= flushThreshold) flush();
+    }
+
+    public void println(CharSequence text) {
+        write(text);
+        write(lineSeparator);
+        if (lineBuffered || buffer.position() >= flushThreshold) flush();
+    }
+
+    private void write(CharSequence text) {
+        int length = text.length();
+        if (asciiCompatible) {
+            for (int i = 0; i < length; i++) {
+                char c = text.charAt(i);
+                if (c >= 0x80) {
+                    encode(text, i);
+                    return;
+                }
+                if (!buffer.hasRemaining()) drain();
+                buffer.put((byte) c);
+            }
+            return;
+        }
+        encode(text, 0);
+    }
+
+    private void encode(CharSequence text, int from) {
+        CharBuffer chars = CharBuffer.wrap(text, from, text.length());
+        encoder.reset();
+        CoderResult result;
+        do {
+            result = encoder.encode(chars, buffer, true);
+            if (result.isOverflow()) drain();
+        } while (!result.isUnderflow());
+        while (encoder.flush(buffer).isOverflow()) drain();
+    }
+
+    public void flush() {
+        drain();
+    }
+
+    private void drain() {
+        buffer.flip();
+        written += buffer.remaining();
+        try {
+            while (buffer.hasRemaining() && !trouble) channel.write(buffer);
+        } catch (IOException e) {
+            trouble = true;
+        }
+        buffer.clear();
+    }
+
+    // Bytes printed so far, including any not yet flushed.
+    public long bytesWritten() {
+        return written + buffer.position();
+    }
+
+    public boolean checkError() {
+        flush();
+        return trouble;
+    }
+}